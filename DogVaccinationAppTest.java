@@ -24,6 +24,22 @@ public class DogVaccinationAppTest {
         assertEquals(50, g.dogs.size(), "Graph should have exactly 50 dogs");
     }
 
+    @Test
+    @DisplayName("Random graph edge count matches p * n(n-1)/2")
+    void testRandomGraphEdgeDensity() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.random(2000, 0.01, new Random(11));
+        double expected = 0.01 * 2000 * 1999 / 2;   // ~19990, std-dev ~141
+        assertTrue(Math.abs(t.edgeCount() - expected) < expected * 0.05,
+                "Edge count " + t.edgeCount() + " too far from expected " + expected);
+        assertEquals(0, DogVaccinationApp.Topology.random(100, 0.0, new Random(1)).edgeCount(),
+                "p = 0 should produce no edges");
+        assertEquals(100 * 99 / 2, DogVaccinationApp.Topology.random(100, 1.0, new Random(1)).edgeCount(),
+                "p = 1 should produce the complete graph");
+        assertEquals(0, DogVaccinationApp.Topology.random(1000, 1e-17, new Random(1)).edgeCount(),
+                "p below double resolution of 1 - p should produce (almost surely) no edges");
+        assertEquals(0, DogVaccinationApp.Topology.random(1000, Double.MIN_VALUE, new Random(1)).edgeCount());
+    }
+
     @Test
     @DisplayName("Scale-Free graph has correct number of dogs")
     void testScaleFreeGraphNodeCount() {
@@ -40,6 +56,19 @@ public class DogVaccinationAppTest {
                 "Scale-free graph should have hub nodes with degree >> average");
     }
 
+    @Test
+    @DisplayName("Scale-Free generator adds exactly edgesPerNode distinct edges per new dog")
+    void testScaleFreeEdgeCount() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(1000, 3, new Random(7));
+        // 4-dog seed clique (6 edges) + 3 edges for each of the other 996 dogs
+        assertEquals(6 + 996 * 3, t.edgeCount(), "Unexpected number of edges");
+        for (int v = 0; v < t.n; v++) {
+            Set<Integer> seen = new HashSet<>();
+            for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++)
+                assertTrue(seen.add(t.targets[e]), "Duplicate edge at node " + v);
+        }
+    }
+
     @Test
     @DisplayName("No self-loops in graph")
     void testNoSelfLoops() {
@@ -61,6 +90,20 @@ public class DogVaccinationAppTest {
         assertTrue(d2.neighbors.contains(d1), "Dog2 should have Dog1 as neighbor");
     }
 
+    @Test
+    @DisplayName("CSR topology mirrors the Dog adjacency lists")
+    void testTopologyMatchesNeighbors() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(60, 3);
+        DogVaccinationApp.Topology t = g.topology();
+        assertEquals(60, t.n, "Topology should cover every dog");
+        for (DogVaccinationApp.Dog d : g.dogs.values()) {
+            assertEquals(d.degree(), t.degree(d.index), "Degree mismatch for Dog#" + d.id);
+            for (int e = t.offsets[d.index]; e < t.offsets[d.index + 1]; e++)
+                assertTrue(d.neighbors.contains(g.getDog(t.ids[t.targets[e]])),
+                        "CSR edge of Dog#" + d.id + " missing from its neighbor list");
+        }
+    }
+
     // =========================================================
     //  Reset Tests
     // =========================================================
@@ -105,6 +148,18 @@ public class DogVaccinationAppTest {
                 "Dog with highest degree should be vaccinated first");
     }
 
+    @Test
+    @DisplayName("Cached degree order matches a stable sort by descending degree")
+    void testDegreeOrderMatchesStableSort() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(2000, 3, new Random(5));
+        Integer[] expected = new Integer[t.n];
+        for (int v = 0; v < t.n; v++) expected[v] = v;
+        Arrays.sort(expected, (a, b) -> t.degree(b) - t.degree(a));
+        int[] order = t.byDegree();
+        for (int i = 0; i < t.n; i++) assertEquals((int) expected[i], order[i], "Mismatch at rank " + i);
+        assertSame(order, t.byDegree(), "Order should be computed once per topology");
+    }
+
     @Test
     @DisplayName("HighRiskArea vaccinates neighbors of infected dogs")
     void testHighRiskAreaTargetsNeighbors() {
@@ -123,6 +178,259 @@ public class DogVaccinationAppTest {
         assertTrue(g.getDog(3).vaccinated, "Dog3 (neighbor of infected) should be vaccinated");
     }
 
+    @Test
+    @DisplayName("AdaptiveHighDegree always removes a dog of maximum remaining degree")
+    void testAdaptiveHighDegreeOrder() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(400, 3, new Random(4));
+        int[] order = DogVaccinationApp.DegreeBuckets.adaptiveOrder(t);
+        assertEquals(t.byDegree()[0], order[0], "First pick is the top hub");
+        boolean[] removed = new boolean[t.n];
+        for (int v : order) {
+            int best = 0, mine = 0;
+            for (int u = 0; u < t.n; u++) {
+                if (removed[u]) continue;
+                int d = 0;
+                for (int e = t.offsets[u]; e < t.offsets[u + 1]; e++) if (!removed[t.targets[e]]) d++;
+                best = Math.max(best, d);
+                if (u == v) mine = d;
+            }
+            assertFalse(removed[v], "Each dog appears once");
+            assertEquals(best, mine, "Dog " + v + " was not of maximum remaining degree");
+            removed[v] = true;
+        }
+    }
+
+    @Test
+    @DisplayName("Betweenness finds the low-degree bridge, exactly and by pivot sampling")
+    void testBetweennessBridge() {
+        // Two 6-dog cliques joined only through dog 12 (degree 2)
+        DogVaccinationApp.EdgeList edges = new DogVaccinationApp.EdgeList(40);
+        for (int c = 0; c < 2; c++)
+            for (int i = 0; i < 6; i++)
+                for (int j = i + 1; j < 6; j++) edges.add(c * 6 + i, c * 6 + j);
+        edges.add(0, 12); edges.add(12, 6);
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.fromEdges(13, edges);
+
+        DogVaccinationApp.Betweenness exact = new DogVaccinationApp.Betweenness();
+        double[] bc = exact.scores(t);
+        assertEquals(2 * 6 * 6, bc[12], 1e-9, "Bridge lies on every path between the cliques (both directions)");
+        assertEquals(2 * 5 * 7, bc[0],  1e-9, "Gateway carries its clique-mates' paths out");
+        assertEquals(12, DogVaccinationApp.RankedStrategy.byScore(bc)[0], "Bridge should rank first");
+
+        DogVaccinationApp.Betweenness sampled = new DogVaccinationApp.Betweenness();
+        sampled.exactLimit = 0; sampled.epsilon = 0.5;
+        assertTrue(sampled.pivots(13) < 13, "Large-graph path should sample pivots");
+        double[] approx = sampled.scores(t);
+        for (int v = 0; v < 13; v++)
+            assertEquals(bc[v] / (12 * 11), approx[v] / (12 * 11), 0.5, "Normalised error above epsilon at " + v);
+    }
+
+    @Test
+    @DisplayName("Score ranking is descending and keeps ties in index order")
+    void testRankByScore() {
+        Random   r     = new Random(4);
+        double[] score = new double[1001];
+        for (int v = 0; v < score.length; v++) score[v] = r.nextInt(50);   // many ties
+        int[] order = DogVaccinationApp.RankedStrategy.byScore(score);
+        Integer[] expected = new Integer[score.length];
+        for (int v = 0; v < expected.length; v++) expected[v] = v;
+        Arrays.sort(expected, (a, b) -> Double.compare(score[b], score[a]));
+        for (int i = 0; i < order.length; i++) assertEquals((int) expected[i], order[i]);
+        assertEquals(0, DogVaccinationApp.RankedStrategy.byScore(new double[0]).length);
+    }
+
+    @Test
+    @DisplayName("PageRank converges to a distribution that ranks hubs first")
+    void testPageRank() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(10_000, 3, new Random(8));
+        DogVaccinationApp.PageRank pr = new DogVaccinationApp.PageRank();
+        double[] rank = pr.scores(t);
+        assertTrue(pr.iterations < pr.maxIterations, "Should converge before the iteration cap");
+        assertEquals(1.0, Arrays.stream(rank).sum(), 1e-6, "Ranks should form a distribution");
+        assertEquals(t.byDegree()[0], DogVaccinationApp.RankedStrategy.byScore(rank)[0],
+                "The biggest hub should have the highest rank");
+        // No teleport on a connected, aperiodic undirected graph: rank ∝ degree
+        DogVaccinationApp.Topology er = DogVaccinationApp.Topology.random(300, 0.05, new Random(2));
+        pr.damping = 1.0; pr.maxIterations = 2000; pr.tolerance = 1e-12;
+        double[] stationary = pr.scores(er);
+        for (int v = 0; v < er.n; v++)
+            assertEquals(er.degree(v) / (2.0 * er.edgeCount()), stationary[v], 1e-6);
+    }
+
+    @Test
+    @DisplayName("Core numbers match repeated peeling and order KCore by core, then degree")
+    void testCoreNumbers() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.random(300, 0.03, new Random(6));
+        int[] core = t.coreNumbers();
+        // Naive peeling: for each k, strip nodes with < k live neighbours until stable
+        for (int k = 1; k <= t.maxCore() + 1; k++) {
+            boolean[] gone = new boolean[t.n];
+            for (boolean changed = true; changed; ) {
+                changed = false;
+                for (int v = 0; v < t.n; v++) {
+                    if (gone[v]) continue;
+                    int live = 0;
+                    for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++) if (!gone[t.targets[e]]) live++;
+                    if (live < k) { gone[v] = true; changed = true; }
+                }
+            }
+            for (int v = 0; v < t.n; v++)
+                assertEquals(core[v] >= k, !gone[v], "Dog " + v + " in the " + k + "-core");
+        }
+        int[] order = DogVaccinationApp.DegreeBuckets.coreOrder(t);
+        for (int i = 1; i < order.length; i++) {
+            int a = order[i - 1], b = order[i];
+            assertTrue(core[a] > core[b] || core[a] == core[b] && t.degree(a) >= t.degree(b),
+                    "Order broken at rank " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Acquaintance finds the hub without degree knowledge and stops on edgeless graphs")
+    void testAcquaintance() {
+        DogVaccinationApp.DogGraph star = new DogVaccinationApp.DogGraph();
+        for (int i = 1; i <= 50; i++) star.addEdge(0, i);
+        star.rand = new SplittableRandom(1);
+        star.vaccinate("Acquaintance2", 1);
+        assertTrue(star.getDog(0).vaccinated, "The centre is named by nearly every leaf");
+        assertEquals(1, star.dogs.values().stream().filter(d -> d.vaccinated).count());
+
+        DogVaccinationApp.DogGraph lonely = new DogVaccinationApp.DogGraph();
+        for (int i = 0; i < 20; i++) lonely.getDog(i);
+        lonely.vaccinate("Acquaintance", 5);              // must terminate
+        assertTrue(lonely.dogs.values().stream().noneMatch(d -> d.vaccinated), "No contacts, no doses");
+
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(1000, 3);
+        DogVaccinationApp.Experiment exp = new DogVaccinationApp.Experiment(g, 50, 3, 30);
+        assertEquals(30.0, exp.runAll("Acquaintance2").vacc.mean, "Every dose should be placed");
+
+        // Sparse and large: k = 2 needs about sqrt(30 · N) draws, far more than 100 per dose.
+        int n = 1_000_000;
+        DogVaccinationApp.Topology er = DogVaccinationApp.Topology.random(n, 6.0 / n, new SplittableRandom(2));
+        DogVaccinationApp.Experiment big = new DogVaccinationApp.Experiment(er, 10, 3, 30);
+        big.seed = 3L;
+        assertEquals(30.0, big.runAll("Acquaintance2").vacc.mean, "Every dose should be placed on a sparse graph");
+    }
+
+    @Test
+    @DisplayName("Collective Influence incremental order matches full recomputation")
+    void testCollectiveInfluenceOrder() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(150, 2, new Random(12));
+        DogVaccinationApp.CollectiveInfluence.Order ci = new DogVaccinationApp.CollectiveInfluence.Order(t, 2);
+        assertEquals(10, ci.extend(10), "Lazy prefix");
+        assertEquals(t.n, ci.extend(t.n), "Extending continues the same sequence");
+        boolean[] gone = new boolean[t.n];
+        for (int step = 0; step < t.n; step++) {
+            long best = -1; int arg = -1;
+            for (int v = 0; v < t.n; v++) {
+                if (gone[v]) continue;
+                long s = naiveCi(t, gone, v, 2);
+                if (s > best) { best = s; arg = v; }
+            }
+            assertEquals(arg, ci.order[step], "Step " + step);
+            gone[arg] = true;
+        }
+    }
+
+    private static long naiveCi(DogVaccinationApp.Topology t, boolean[] gone, int v, int radius) {
+        int[] dist = new int[t.n];
+        Arrays.fill(dist, -1);
+        Deque<Integer> q = new ArrayDeque<>(List.of(v));
+        dist[v] = 0;
+        long frontier = 0;
+        while (!q.isEmpty()) {
+            int x = q.poll();
+            if (dist[x] == radius) { frontier += liveDegree(t, gone, x) - 1; continue; }
+            for (int e = t.offsets[x]; e < t.offsets[x + 1]; e++) {
+                int y = t.targets[e];
+                if (!gone[y] && dist[y] < 0) { dist[y] = dist[x] + 1; q.add(y); }
+            }
+        }
+        int k = liveDegree(t, gone, v);
+        return k <= 1 ? 0 : (k - 1) * frontier;
+    }
+
+    private static int liveDegree(DogVaccinationApp.Topology t, boolean[] gone, int v) {
+        int d = 0;
+        for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++) if (!gone[t.targets[e]]) d++;
+        return d;
+    }
+
+    @Test
+    @DisplayName("Strategies come from the registry, prepared once per topology")
+    void testStrategyRegistry() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(100, 3);
+        assertThrows(IllegalArgumentException.class, () -> g.selector("NoSuchStrategy"));
+        assertSame(g.selector("HighDegree"), g.selector("HighDegree"), "Selector should be cached");
+        List<String> names = Arrays.asList(DogVaccinationApp.StrategyRegistry.names());
+        assertEquals(List.of("Random", "HighDegree", "HighRiskArea"), names.subList(0, 3), "Registration order");
+        for (String name : names) assertNotNull(g.selector(name), name);
+
+        int[] prepares = {0};
+        DogVaccinationApp.StrategyRegistry.register("LowestIndex", topo -> {
+            prepares[0]++;
+            return (s, count, w, rng) -> { for (int v = 0; v < count; v++) s.vaccinate(v); };
+        });
+        DogVaccinationApp.Experiment exp = new DogVaccinationApp.Experiment(g, 20, 3, 10);
+        exp.runAll("LowestIndex");
+        assertEquals(1, prepares[0], "prepare should run once for all runs");
+        assertEquals(10.0, exp.stats.get("LowestIndex").vacc.mean);
+
+        g.addEdge(0, 100);                                // new dog: topology changes, prepare again
+        g.vaccinate("LowestIndex", 10);
+        assertEquals(2, prepares[0]);
+        for (int id = 0; id < 10; id++) assertTrue(g.getDog(id).vaccinated);
+    }
+
+    @Test
+    @DisplayName("HighRiskArea covers the ring first, then falls back to dogs outside it")
+    void testHighRiskAreaFallback() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(500, 3);
+        DogVaccinationApp.Topology t = g.topology();
+        DogVaccinationApp.NodeSet ring = new DogVaccinationApp.NodeSet(t.n);
+        DogVaccinationApp.IndexSampler pick = new DogVaccinationApp.IndexSampler(t.n);
+        for (int trial = 0; trial < 5; trial++) {          // scratch reused across runs
+            DogVaccinationApp.SimulationState s = new DogVaccinationApp.SimulationState(t.n);
+            s.infect(trial);
+            int ringSize = t.degree(trial);
+            g.vaccinateHighRiskArea(s, ringSize + 10, ring, pick, new SplittableRandom(trial));
+            assertEquals(ringSize + 10, s.vaccinatedCount(), "Ring plus fallback should be vaccinated");
+            for (int e = t.offsets[trial]; e < t.offsets[trial + 1]; e++)
+                assertTrue(s.isVaccinated(t.targets[e]), "Every ring dog should be vaccinated first");
+        }
+    }
+
+    @Test
+    @DisplayName("Reseeded SplitMix64 replays the SplittableRandom stream of the same seed")
+    void testSplitMix64MatchesSplittableRandom() {
+        DogVaccinationApp.SplitMix64 mix = new DogVaccinationApp.SplitMix64();
+        for (long seed : new long[]{0L, 1L, -7L, 0x9E3779B97F4A7C15L}) {
+            SplittableRandom ref = new SplittableRandom(seed);
+            mix.reseed(seed);
+            for (int i = 0; i < 200; i++) {
+                assertEquals(ref.nextLong(), mix.nextLong());
+                assertEquals(ref.nextInt(), mix.nextInt());
+                assertEquals(ref.nextInt(1 + i), mix.nextInt(1 + i));
+                assertEquals(ref.nextDouble(), mix.nextDouble(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("IndexSampler draws distinct indices and depends only on its generator")
+    void testIndexSampler() {
+        DogVaccinationApp.IndexSampler pick = new DogVaccinationApp.IndexSampler(1000);
+        int k = pick.sample(30, new SplittableRandom(3));
+        int[] first = Arrays.copyOf(pick.picked, k);
+        assertEquals(30, k);
+        assertEquals(30, Arrays.stream(first).distinct().count(), "Indices should be distinct");
+        pick.sample(500, new SplittableRandom(9));       // unrelated draw in between
+        pick.sample(30, new SplittableRandom(3));
+        assertArrayEquals(first, Arrays.copyOf(pick.picked, 30), "Same generator should give same draw");
+        for (int i = 0; i < 1000; i++) assertEquals(i, pick.perm[i], "Permutation should be restored");
+        assertEquals(1000, pick.sample(5000, new SplittableRandom(1)), "Cannot draw more than n");
+    }
+
     @Test
     @DisplayName("Cannot vaccinate more dogs than exist")
     void testVaccinationDoesNotExceedPopulation() {
@@ -180,6 +488,167 @@ public class DogVaccinationAppTest {
         assertTrue(res[1] <= g.dogs.size(), "finalInfected cannot exceed population");
     }
 
+    @Test
+    @DisplayName("Spreading on a SimulationState leaves the shared graph untouched")
+    void testStateRunDoesNotMutateGraph() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(50, 2);
+        DogVaccinationApp.SimulationState s = new DogVaccinationApp.SimulationState(g.dogs.size());
+        g.infectRandom(s, 5, g.rand);
+        g.vaccinateHighDegree(s, 10);
+        int[] res = g.simulateSpread(s, g.rand);
+
+        assertEquals(res[1], s.infectedCount(), "Result should match the state's infected bits");
+        assertEquals(10, s.vaccinatedCount(), "State should hold exactly 10 vaccinated dogs");
+        for (DogVaccinationApp.Dog d : g.dogs.values())
+            assertFalse(d.infected || d.vaccinated, "Dog#" + d.id + " flags should stay clear");
+    }
+
+    @Test
+    @DisplayName("A reused SpreadKernel reports counts that match each run's state")
+    void testSpreadKernelReuse() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(200, 3);
+        DogVaccinationApp.SpreadKernel k = new DogVaccinationApp.SpreadKernel(g.topology());
+        DogVaccinationApp.SimulationState s = new DogVaccinationApp.SimulationState(200);
+        for (int run = 0; run < 5; run++) {
+            s.clear();
+            g.infectRandom(s, 4, g.rand);
+            g.vaccinateRandom(s, 20, g.rand);
+            k.run(s, g.rand);
+            assertEquals(s.infectedCount(), k.finalInfected, "finalInfected should match the state");
+            assertEquals(k.finalInfected, k.everInfected, "SI model: everInfected equals finalInfected");
+            assertTrue(k.finalInfected >= 4, "Seeds stay infected");
+        }
+    }
+
+    @Test
+    @DisplayName("Percolation engine stops at vaccinated dogs on a fully open chain")
+    void testPercolationBlockedByVaccine() {
+        DogVaccinationApp.DogGraph g = new DogVaccinationApp.DogGraph();
+        g.addEdge(0, 1); g.addEdge(1, 2); g.addEdge(2, 3); g.addEdge(3, 4);
+        DogVaccinationApp.PercolationEngine pe = new DogVaccinationApp.PercolationEngine(g.topology());
+        DogVaccinationApp.SimulationState s = new DogVaccinationApp.SimulationState(5);
+        s.infect(g.getDog(0).index);
+        s.vaccinate(g.getDog(2).index);
+
+        pe.sample(new SplittableRandom(1), 1.0);   // every edge transmits
+        pe.outbreak(s);
+        assertEquals(2, pe.finalInfected, "Only dogs 0 and 1 are reachable before the vaccinated dog");
+    }
+
+    @Test
+    @DisplayName("Percolation and BFS engines agree on the mean outbreak size")
+    void testPercolationMatchesBfsOnAverage() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(300, 2);
+        DogVaccinationApp.Experiment bfs  = new DogVaccinationApp.Experiment(g, 1, 3, 30);
+        DogVaccinationApp.Experiment perc = new DogVaccinationApp.Experiment(g, 1, 3, 30);
+        perc.useEngine(new DogVaccinationApp.PercolationEngine(g.topology()));
+        int RUNS = 3000;
+        double sumBfs = 0, sumPerc = 0;
+        for (int r = 1; r <= RUNS; r++) {
+            sumBfs  += bfs.runOnce("Random", r).finalInfected;
+            sumPerc += perc.runOnce("Random", r).finalInfected;
+        }
+        double a = sumBfs / RUNS, b = sumPerc / RUNS;
+        assertTrue(Math.abs(a - b) < 0.1 * Math.max(a, b),
+                String.format("BFS mean %.2f and percolation mean %.2f should agree", a, b));
+    }
+
+    @Test
+    @DisplayName("Newman-Ziff sweep spans seeds-only at p=0 to the whole graph at p=1")
+    void testNewmanZiffSweepEndpoints() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(200, 3);
+        DogVaccinationApp.NewmanZiffSweep sweep = new DogVaccinationApp.NewmanZiffSweep(g.topology());
+        DogVaccinationApp.SimulationState s = new DogVaccinationApp.SimulationState(200);
+        SplittableRandom rng = new SplittableRandom(3);
+        for (int i = 0; i < 20; i++) {
+            s.clear();
+            g.infectRandom(s, 4, rng);
+            sweep.run(s, rng);
+        }
+        assertEquals(4.0,   sweep.expected(0.0), 1e-9, "No open edges: only the seeds are infected");
+        assertEquals(200.0, sweep.expected(1.0), 1e-9, "All edges open: the connected graph is infected");
+        double prev = 0;
+        for (double p = 0; p <= 1.0001; p += 0.05) {
+            double cur = sweep.expected(Math.min(p, 1));
+            assertTrue(cur >= prev - 1e-9, "Expected outbreak should grow with p");
+            prev = cur;
+        }
+    }
+
+    @Test
+    @DisplayName("Experiment sweep matches runAll at p=0, INFECTION_PROB and p=1 and writes its CSV")
+    void testSweepInfectionProbMatchesRunAll() throws java.io.IOException {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(300, 2, new SplittableRandom(6));
+        double[] probs = {0.0, DogVaccinationApp.INFECTION_PROB, 1.0};
+        int      runs  = 1000;
+        java.io.File csv = java.io.File.createTempFile("infection_sweep", ".csv");
+        csv.deleteOnExit();
+        DogVaccinationApp.Experiment sweep = new DogVaccinationApp.Experiment(t, runs, 3, 30);
+        sweep.seed = 21L;
+        double[][] curve = sweep.sweepInfectionProb(runs, probs, csv.getPath());
+        for (int s = 0; s < sweep.strategies.length; s++)
+            for (int i = 0; i < probs.length; i++) {
+                DogVaccinationApp.Experiment exp = new DogVaccinationApp.Experiment(t, runs, 3, 30);
+                exp.seed          = 21L;
+                exp.infectionProb = probs[i];
+                double mean = exp.runAll(sweep.strategies[s]).fin.mean;
+                double tol  = probs[i] == 0.0 || probs[i] == 1.0 ? 1e-9 : 0.1 * mean + 1;
+                assertEquals(mean, curve[s][i], tol, sweep.strategies[s] + " at p = " + probs[i]);
+            }
+        List<String> lines = java.nio.file.Files.readAllLines(csv.toPath());
+        assertEquals(probs.length + 1, lines.size(), "Header plus one line per probability");
+        assertTrue(lines.get(0).startsWith("InfProb,Random"));
+    }
+
+    @Test
+    @DisplayName("Batched 64-lane kernel matches the BFS kernel on average")
+    void testBatchedKernelMatchesBfs() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(300, 2);
+        int RUNS = 64 * 40;
+        DogVaccinationApp.Experiment bfs   = new DogVaccinationApp.Experiment(g, RUNS, 3, 30);
+        DogVaccinationApp.Experiment batch = new DogVaccinationApp.Experiment(g, RUNS, 3, 30);
+        batch.batched = true;
+        double a = bfs.runRuns("Random", 1, RUNS).fin.mean, b = batch.runRuns("Random", 1, RUNS).fin.mean;
+        assertTrue(Math.abs(a - b) < 0.1 * Math.max(a, b),
+                String.format("BFS mean %.2f and batched mean %.2f should agree", a, b));
+    }
+
+    @Test
+    @DisplayName("Batched coins stay exact for p below the 1/65536 mask resolution")
+    void testBatchedCoinsForTinyProbability() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(10, 2, new SplittableRandom(1));
+        DogVaccinationApp.BatchedSpreadKernel low  = new DogVaccinationApp.BatchedSpreadKernel(t, 2e-6);
+        DogVaccinationApp.BatchedSpreadKernel high = new DogVaccinationApp.BatchedSpreadKernel(t, 1 - 2e-6);
+        SplittableRandom rng = new SplittableRandom(8);
+        int hits = 0, misses = 0, trials = 200_000;      // 64 · trials · 2e-6 = 25.6 expected each
+        for (int i = 0; i < trials; i++) {
+            hits   += Long.bitCount(low.coinMask(-1L, rng));
+            misses += 64 - Long.bitCount(high.coinMask(-1L, rng));
+        }
+        assertTrue(hits > 5 && hits < 60, "Transmissions at p = 2e-6: " + hits);
+        assertTrue(misses > 5 && misses < 60, "Blocked transmissions at p = 1 - 2e-6: " + misses);
+    }
+
+    @Test
+    @DisplayName("Batched kernel never infects a vaccinated dog in any lane")
+    void testBatchedKernelRespectsVaccines() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(120, 3);
+        DogVaccinationApp.BatchedSpreadKernel b = new DogVaccinationApp.BatchedSpreadKernel(g.topology(), 0.9);
+        DogVaccinationApp.SimulationState s = new DogVaccinationApp.SimulationState(120);
+        SplittableRandom rng = new SplittableRandom(5);
+        for (int lane = 0; lane < 64; lane++) {
+            s.clear();
+            g.infectRandom(s, 2, rng);
+            g.vaccinateRandom(s, 30, rng);
+            b.load(lane, s);
+        }
+        long[] vaccinated = b.vaccinated.clone(), seeds = b.infected.clone();
+        b.run(rng);
+        for (int v = 0; v < 120; v++)
+            assertEquals(0L, b.infected[v] & vaccinated[v] & ~seeds[v],
+                    "Dog " + v + " was infected in a lane where it is vaccinated");
+    }
+
     // =========================================================
     //  Experiment / Multi-Run Tests
     // =========================================================
@@ -201,6 +670,211 @@ public class DogVaccinationAppTest {
                 "Independent runs with probabilistic spread should produce varied results");
     }
 
+    @Test
+    @DisplayName("A run replays exactly from the experiment seed")
+    void testRunIsReproducibleFromSeed() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(150, 3);
+        DogVaccinationApp.Experiment a = new DogVaccinationApp.Experiment(g, 5, 5, 20);
+        DogVaccinationApp.Experiment b = new DogVaccinationApp.Experiment(g, 5, 5, 20);
+        a.seed = b.seed = 2024L;
+        for (int r = 1; r <= 5; r++)
+            for (String strat : new String[]{"Random", "HighDegree", "HighRiskArea"})
+                assertEquals(a.runOnce(strat, r).finalInfected, b.runOnce(strat, r).finalInfected,
+                        strat + " run " + r + " should replay identically");
+    }
+
+    @Test
+    @DisplayName("Parallel runAll returns exactly the serial results")
+    void testParallelMatchesSerial() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(200, 3);
+        DogVaccinationApp.Experiment serial   = new DogVaccinationApp.Experiment(g, 300, 4, 25);
+        DogVaccinationApp.Experiment parallel = new DogVaccinationApp.Experiment(g, 300, 4, 25);
+        serial.seed = parallel.seed = 99L;
+        parallel.parallelism = 4;
+        for (String strat : new String[]{"Random", "HighDegree", "HighRiskArea"}) {
+            DogVaccinationApp.StrategyStats a = serial.runAll(strat), b = parallel.runAll(strat);
+            assertEquals(a.fin.mean, b.fin.mean, 0.0, strat + " mean should be bit-identical");
+            assertEquals(a.fin.m2,   b.fin.m2,   0.0, strat + " variance should be bit-identical");
+        }
+        for (int i = 0; i < serial.allResults.size(); i++) {
+            DogVaccinationApp.SimulationResult a = serial.allResults.get(i), b = parallel.allResults.get(i);
+            assertEquals(a.run, b.run, "Runs should come back in order");
+            assertEquals(a.finalInfected, b.finalInfected, a.strategy + " run " + a.run + " differs");
+        }
+        parallel.close();
+
+        java.util.concurrent.ForkJoinPool shared = new java.util.concurrent.ForkJoinPool(3);
+        try (DogVaccinationApp.Experiment supplied = new DogVaccinationApp.Experiment(g, 300, 4, 25)) {
+            supplied.seed        = 99L;
+            supplied.parallelism = 3;
+            supplied.pool        = shared;
+            assertEquals(serial.stats.get("Random").fin.mean, supplied.runAll("Random").fin.mean, 0.0);
+        }
+        assertFalse(shared.isShutdown(), "A caller-supplied pool is not closed by the experiment");
+        shared.shutdown();
+    }
+
+    @Test
+    @DisplayName("An experiment on a bare Topology matches one on its DogGraph")
+    void testExperimentWithoutDogs() {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(300, 3, new SplittableRandom(5));
+        DogVaccinationApp.Experiment bare = new DogVaccinationApp.Experiment(t, 100, 3, 20);
+        DogVaccinationApp.Experiment dogs = new DogVaccinationApp.Experiment(
+                DogVaccinationApp.DogGraph.fromTopology(t), 100, 3, 20);
+        bare.seed = dogs.seed = 11L;
+        for (String strat : new String[]{"Random", "HighDegree", "HighRiskArea"})
+            assertEquals(dogs.runAll(strat).fin.mean, bare.runAll(strat).fin.mean, 0.0, strat);
+    }
+
+    @Test
+    @DisplayName("Scenario sweep streams one result per scenario to the sink")
+    void testScenarioSweep() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(150, 3);
+        List<DogVaccinationApp.Scenario> grid = DogVaccinationApp.Scenario.grid(
+                new String[]{"Random", "HighDegree"}, new int[]{10, 20}, new int[]{3},
+                new double[]{0.0, 0.4}, 8);
+        DogVaccinationApp.ScenarioSweep sweep = new DogVaccinationApp.ScenarioSweep(g);
+        sweep.threads = 3;
+        List<DogVaccinationApp.ScenarioResult> streamed = Collections.synchronizedList(new ArrayList<>());
+
+        List<DogVaccinationApp.ScenarioResult> results = sweep.run(grid, streamed::add);
+
+        assertEquals(8, results.size(), "One result per scenario");
+        assertEquals(8, streamed.size(), "Every result should reach the sink");
+        for (DogVaccinationApp.ScenarioResult r : results)
+            if (r.scenario.infectionProb == 0.0)
+                assertEquals(3.0, r.avgFinal, 1e-9, "With p = 0 only the seeds are infected");
+    }
+
+    @Test
+    @DisplayName("Scenario sweep CSV gets the header and each line while later scenarios still run")
+    void testScenarioSweepStreamsCsv() throws Exception {
+        DogVaccinationApp.Topology t = DogVaccinationApp.Topology.scaleFree(150, 3, new SplittableRandom(2));
+        java.util.concurrent.CountDownLatch gate = new java.util.concurrent.CountDownLatch(1);
+        DogVaccinationApp.StrategyRegistry.register("Gated", topo -> (s, count, w, rng) -> {
+            try { gate.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            for (int v = 0; v < count; v++) s.vaccinate(v);
+        });
+        List<DogVaccinationApp.Scenario> grid = new ArrayList<>();
+        grid.add(new DogVaccinationApp.Scenario("Gated", 10, 3, 0.4, 4));
+        grid.addAll(DogVaccinationApp.Scenario.grid(new String[]{"Random"}, new int[]{10, 20, 30},
+                new int[]{3}, new double[]{0.4}, 4));
+        java.io.File csv = java.io.File.createTempFile("scenario_sweep", ".csv");
+        csv.deleteOnExit();
+        DogVaccinationApp.ScenarioSweep sweep = new DogVaccinationApp.ScenarioSweep(t);
+        sweep.threads = 2;
+        java.util.concurrent.CompletableFuture<List<DogVaccinationApp.ScenarioResult>> done =
+                java.util.concurrent.CompletableFuture.supplyAsync(() -> {
+                    try { return sweep.runToCsv(grid, csv.getPath()); }
+                    catch (java.io.IOException e) { throw new java.io.UncheckedIOException(e); }
+                });
+        try {
+            List<String> lines = List.of();
+            for (long end = System.currentTimeMillis() + 10_000; lines.size() < 4 && System.currentTimeMillis() < end; ) {
+                Thread.sleep(10);
+                lines = java.nio.file.Files.readAllLines(csv.toPath());
+            }
+            assertEquals(4, lines.size(), "Header and the three finished scenarios should be on disk");
+            assertTrue(lines.get(0).startsWith("Strategy,Vaccines"));
+            assertFalse(done.isDone(), "The gated scenario is still running");
+        } finally {
+            gate.countDown();
+        }
+        assertEquals(4, done.get().size(), "One result per scenario");
+        List<String> lines = java.nio.file.Files.readAllLines(csv.toPath());
+        assertEquals(5, lines.size(), "Header plus one line per scenario");
+        assertTrue(lines.get(4).startsWith("Gated,"), "The gated scenario finishes last");
+    }
+
+    @Test
+    @DisplayName("Merged RunningStats equal one pass over all values")
+    void testRunningStatsMerge() {
+        DogVaccinationApp.RunningStats all = new DogVaccinationApp.RunningStats();
+        DogVaccinationApp.RunningStats left = new DogVaccinationApp.RunningStats();
+        DogVaccinationApp.RunningStats right = new DogVaccinationApp.RunningStats();
+        double[] xs = {4, 8, 15, 16, 23, 42, 7, 1, 99, 3};
+        for (int i = 0; i < xs.length; i++) {
+            all.add(xs[i]);
+            (i < 4 ? left : right).add(xs[i]);
+        }
+        left.merge(right);
+        assertEquals(21.8, all.mean, 1e-9, "Mean of the sample");
+        assertEquals(all.mean, left.mean, 1e-9, "Merged mean");
+        assertEquals(all.variance(), left.variance(), 1e-9, "Merged variance");
+        assertEquals(1.0, left.min, 0.0, "Merged min");
+        assertEquals(99.0, left.max, 0.0, "Merged max");
+    }
+
+    @Test
+    @DisplayName("Outbreak histogram reports exact quantiles and merges by adding counts")
+    void testOutbreakHistogram() {
+        DogVaccinationApp.OutbreakHistogram a = new DogVaccinationApp.OutbreakHistogram(100);
+        DogVaccinationApp.OutbreakHistogram b = new DogVaccinationApp.OutbreakHistogram(100);
+        for (int i = 0; i < 80; i++) a.add(3);    // fizzles
+        for (int i = 0; i < 20; i++) b.add(70);   // large outbreaks
+        a.merge(b);
+        assertEquals(100, a.total, "Merged histogram should hold all runs");
+        assertEquals(3,  a.quantile(0.50), "Median is a fizzle");
+        assertEquals(70, a.quantile(0.90), "p90 is a large outbreak");
+        assertEquals(0.20, a.largeOutbreakProbability(0.10), 1e-9, "20% of runs reached 10% of dogs");
+
+        DogVaccinationApp.OutbreakHistogram big = new DogVaccinationApp.OutbreakHistogram(1_000_000);
+        assertTrue(big.counts.length <= DogVaccinationApp.OutbreakHistogram.MAX_BUCKETS,
+                "Bucket count should stay bounded for large populations");
+        big.add(1_000_000);
+        assertEquals(1_000_000, big.quantile(0.5), "Top bucket should end at the population");
+    }
+
+    @Test
+    @DisplayName("keepRuns = false keeps aggregates but no per-run records")
+    void testStreamingWithoutRunRecords() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(100, 3);
+        DogVaccinationApp.Experiment exp = new DogVaccinationApp.Experiment(g, 500, 3, 20);
+        exp.keepRuns = false;
+        DogVaccinationApp.StrategyStats st = exp.runAll("Random");
+        assertEquals(500, st.fin.count, "All runs should be aggregated");
+        assertTrue(exp.allResults.isEmpty(), "No per-run records should be stored");
+        assertTrue(st.fin.ci95() > 0 && st.fin.min <= st.fin.mean && st.fin.mean <= st.fin.max,
+                "Aggregates should be consistent");
+    }
+
+    @Test
+    @DisplayName("Common random numbers give identical runs when strategies do not differ")
+    void testCommonRandomNumbersPairRuns() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(200, 3);
+        DogVaccinationApp.Experiment exp = new DogVaccinationApp.Experiment(g, 100, 3, 0);
+        exp.commonRandomNumbers = true;
+        exp.batched = true;                       // ignored under CRN
+        exp.runAll("Random");
+        exp.runAll("HighDegree");
+        DogVaccinationApp.RunningStats d = exp.pairedDifference("HighDegree", "Random");
+        assertEquals(100, d.count);
+        assertEquals(0.0, d.mean, "With no vaccines both strategies must see the same outbreaks");
+        assertEquals(0.0, d.m2);
+    }
+
+    @Test
+    @DisplayName("Adaptive runs stop within the cap and match a fixed run of the same length")
+    void testAdaptiveRunCount() {
+        DogVaccinationApp.DogGraph g = DogVaccinationApp.DogGraph.buildScaleFreeGraph(200, 3);
+        String[] strats = {"Random", "HighDegree", "HighRiskArea"};
+        DogVaccinationApp.Experiment exp = new DogVaccinationApp.Experiment(g, 0, 3, 20);
+        exp.keepRuns = false;
+        exp.targetCi = 0.5;
+        exp.maxRuns  = 300;
+        DogVaccinationApp.StrategyStats[] st = exp.runAdaptive(strats);
+        for (int s = 0; s < strats.length; s++) {
+            long n = st[s].fin.count;
+            assertTrue(n >= 64 && n <= 300, strats[s] + " used " + n + " runs");
+            assertTrue(n == 300 || st[s].fin.ci95() <= 0.5 || exp.rankSettled(strats, st, s),
+                    "A strategy may only stop early once its CI or rank is settled");
+            DogVaccinationApp.Experiment fixed = new DogVaccinationApp.Experiment(g, (int) n, 3, 20);
+            fixed.seed = exp.seed;
+            assertEquals(fixed.runAll(strats[s]).fin.mean, st[s].fin.mean, 1e-9,
+                    "Adaptive runs must be the first n runs of the fixed sequence");
+        }
+    }
+
     @Test
     @DisplayName("HighDegree strategy performs better than Random on scale-free graph")
     void testHighDegreeBeatsRandomOnScaleFree() {
@@ -12,6 +12,11 @@ import javafx.util.Duration;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
 
 /**
  * ╔══════════════════════════════════════════════════════════╗
@@ -29,7 +34,15 @@ import java.util.*;
  *
  *    java  --module-path /path/to/javafx/lib \
  *          --add-modules javafx.controls \
- *          DogVaccinationApp
+ *          DogVaccinationApp [--all-strategies]
+ *
+ *    --all-strategies  console comparison of every registered strategy
+ *                      instead of Random / HighDegree / HighRiskArea
+ *    --sweep[=file]    also sweep INFECTION_PROB over 0..1 in one pass per
+ *                      strategy (default file infection_sweep.csv)
+ *    --grid[=file]     also run a vaccines × infection-probability grid
+ *                      concurrently, one CSV line per finished scenario
+ *                      (default file scenario_sweep.csv)
  * ╚══════════════════════════════════════════════════════════╝
  */
 public class DogVaccinationApp extends Application {
@@ -42,7 +55,9 @@ public class DogVaccinationApp extends Application {
     static final int    INIT_INFECTED  = 5;
     static final int    VACCINES       = 30;
     static final int    RUNS           = 10;
+    static final int    SWEEP_SAMPLES  = 2000;   // Newman-Ziff passes per strategy for --sweep
     static final double INFECTION_PROB = 0.40;
+    static final double LARGE_OUTBREAK = 0.10;   // share of dogs that counts as "large"
 
     // ══════════════════════════════════════════════════════
     //  COLOR PALETTE
@@ -62,23 +77,699 @@ public class DogVaccinationApp extends Application {
     // ══════════════════════════════════════════════════════
     static class Dog {
         int       id;
+        int       index;                     // dense 0..N-1 slot in Topology
         boolean   infected   = false;
         boolean   vaccinated = false;
         List<Dog> neighbors  = new ArrayList<>();
 
-        Dog(int id) { this.id = id; }
+        Dog(int id, int index) { this.id = id; this.index = index; }
         int degree() { return neighbors.size(); }
     }
 
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — Topology (CSR adjacency)
+    // ══════════════════════════════════════════════════════
+    // Read-only compressed-sparse-row graph, the only structure the engine
+    // needs. Neighbors of node v are targets[offsets[v] .. offsets[v+1]);
+    // nodes are numbered by insertion order and ids[v] maps a node back to
+    // its Dog id. Built directly (scaleFree / random) or from a DogGraph.
+    static final class Topology {
+        final int   n;
+        final int[] offsets, targets, ids;
+        private int[] byDegree, core;        // lazily built, see byDegree() / coreNumbers()
+        private final Map<String, FutureTask<VaccinationStrategy.Selector>> prepared = new ConcurrentHashMap<>();
+
+        Topology(int[] offsets, int[] targets, int[] ids) {
+            this.n = ids.length; this.offsets = offsets; this.targets = targets; this.ids = ids;
+        }
+
+        static Topology of(DogGraph g) {
+            int   n       = g.dogs.size();
+            int[] offsets = new int[n + 1], ids = new int[n];
+            for (Dog d : g.dogs.values()) {
+                ids[d.index]         = d.id;
+                offsets[d.index + 1] = d.degree();
+            }
+            for (int v = 0; v < n; v++) offsets[v + 1] += offsets[v];
+            int[] targets = new int[offsets[n]];
+            for (Dog d : g.dogs.values()) {
+                int e = offsets[d.index];
+                for (Dog nb : d.neighbors) targets[e++] = nb.index;
+            }
+            return new Topology(offsets, targets, ids);
+        }
+
+        // Symmetric CSR over nodes 0..n-1 (ids = indices) from an undirected
+        // edge list; each pair must appear once and must not be a self-loop.
+        static Topology fromEdges(int n, EdgeList edges) {
+            int[] offsets = new int[n + 1], ids = new int[n];
+            for (int i = 0; i < edges.size; i++) { offsets[edges.a[i] + 1]++; offsets[edges.b[i] + 1]++; }
+            for (int v = 0; v < n; v++) { offsets[v + 1] += offsets[v]; ids[v] = v; }
+            int[] targets = new int[offsets[n]], fill = Arrays.copyOf(offsets, n);
+            for (int i = 0; i < edges.size; i++) {
+                int u = edges.a[i], v = edges.b[i];
+                targets[fill[u]++] = v;
+                targets[fill[v]++] = u;
+            }
+            return new Topology(offsets, targets, ids);
+        }
+
+        // ── Barabasi-Albert in O(N·m) ─────────────────────
+        // Every edge writes both endpoints into `ends`, so a uniform pick from
+        // it is a pick proportional to degree; no per-node pool is rebuilt.
+        static Topology scaleFree(int n, int edgesPerNode, RandomGenerator rand) {
+            int      core  = Math.min(edgesPerNode + 1, n);
+            long     total = (long) core * (core - 1) / 2 + (long) Math.max(0, n - core) * edgesPerNode;
+            if (2 * total > Integer.MAX_VALUE - 8)
+                throw new IllegalArgumentException("Graph too large: " + total + " edges");
+            EdgeList edges = new EdgeList((int) total);
+            int[]    ends  = new int[(int) (2 * total)];
+            int      len   = 0;
+
+            for (int i = 0; i < core; i++)
+                for (int j = i + 1; j < core; j++) {
+                    edges.add(i, j); ends[len++] = i; ends[len++] = j;
+                }
+
+            int[] chosen = new int[edgesPerNode];
+            for (int newId = core; newId < n; newId++) {
+                int picked = 0;
+                while (picked < edgesPerNode) {
+                    int target = ends[rand.nextInt(len)], k = 0;
+                    while (k < picked && chosen[k] != target) k++;
+                    if (k == picked) chosen[picked++] = target;
+                }
+                for (int k = 0; k < picked; k++) {
+                    edges.add(newId, chosen[k]); ends[len++] = newId; ends[len++] = chosen[k];
+                }
+            }
+            return fromEdges(n, edges);
+        }
+
+        // ── Erdos-Renyi G(n,p) in O(N + E) ────────────────
+        // Batagelj-Brandes: walk the lower triangle of the adjacency matrix
+        // and jump straight to the next present edge with a geometric skip.
+        static Topology random(int n, double p, RandomGenerator rand) {
+            double   pairs = (double) n * (n - 1) / 2;
+            EdgeList edges = new EdgeList((int) Math.min(Integer.MAX_VALUE - 8, Math.max(0, p) * pairs * 1.1));
+            if (p > 0) {
+                // log1p keeps logQ nonzero for p below 1e-16; the skip stays a
+                // double until it is known to land inside the matrix.
+                double logQ = Math.log1p(-Math.min(p, 1));
+                long   v    = 1, w = -1;
+                while (v < n) {
+                    double skip = Math.floor(Math.log(1 - rand.nextDouble()) / logQ);
+                    if (skip >= pairs - ((double) v * (v - 1) / 2 + w + 1)) break;   // past the last pair
+                    w += 1 + (long) skip;
+                    while (w >= v && v < n) { w -= v; v++; }
+                    if (v < n) edges.add((int) v, (int) w);
+                }
+            }
+            return fromEdges(n, edges);
+        }
+
+        int degree(int v)  { return offsets[v + 1] - offsets[v]; }
+        int edgeCount()    { return targets.length / 2; }
+
+        double averageDegree() { return n == 0 ? 0 : 2.0 * edgeCount() / n; }
+
+        int maxDegree() {
+            int max = 0;
+            for (int v = 0; v < n; v++) max = Math.max(max, degree(v));
+            return max;
+        }
+
+        // Nodes by descending degree, ties in index order (the order a stable
+        // sort gives). Counting sort in O(N + maxDegree), built once: the
+        // topology is immutable, so every run of HighDegree reads the prefix.
+        synchronized int[] byDegree() {
+            if (byDegree != null) return byDegree;
+            int   max   = maxDegree();
+            int[] start = new int[max + 2], order = new int[n];
+            for (int v = 0; v < n; v++) start[max - degree(v) + 1]++;
+            for (int d = 0; d <= max; d++) start[d + 1] += start[d];
+            for (int v = 0; v < n; v++) order[start[max - degree(v)]++] = v;
+            return byDegree = order;
+        }
+
+        // k-core number of every node (Batagelj-Zaversnik, O(N + E)), built once.
+        synchronized int[] coreNumbers() {
+            return core != null ? core : (core = DegreeBuckets.coreNumbers(this));
+        }
+
+        int maxCore() {
+            int max = 0;
+            for (int c : coreNumbers()) max = Math.max(max, c);
+            return max;
+        }
+
+        // Prepared selector of a registered strategy; each strategy is
+        // prepared once per topology. prepare() runs on the first caller's
+        // thread outside any map lock; concurrent callers for the same name
+        // wait for that one result. Look it up once per batch of runs.
+        VaccinationStrategy.Selector selector(String strategy) {
+            VaccinationStrategy st = StrategyRegistry.get(strategy);
+            FutureTask<VaccinationStrategy.Selector> task = new FutureTask<>(() -> st.prepare(this));
+            FutureTask<VaccinationStrategy.Selector> prev = prepared.putIfAbsent(strategy, task);
+            if (prev == null) { prev = task; task.run(); }
+            try {
+                return prev.get();
+            } catch (ExecutionException e) {
+                prepared.remove(strategy, prev);
+                Throwable c = e.getCause();
+                throw c instanceof RuntimeException ? (RuntimeException) c : new IllegalStateException(c);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while preparing " + strategy, e);
+            }
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — DegreeBuckets (bin-sorted degree queue)
+    // ══════════════════════════════════════════════════════
+    // Batagelj-Zaversnik arrays: vert[] holds the remaining nodes sorted by
+    // current degree, bin[d] is where degree d starts, pos[] inverts vert.
+    // Nodes leave from either end (popMin / popMax) and decrement() moves a
+    // node one block down with a single swap, so draining the queue while
+    // decrementing neighbours costs O(N + E + maxDegree) overall.
+    static final class DegreeBuckets {
+        final Topology topo;
+        final int[]    deg, vert, pos, bin;
+        int            lo, hi;               // remaining nodes are vert[lo..hi)
+
+        DegreeBuckets(Topology t) {
+            topo = t;
+            int n = t.n;
+            deg  = new int[n]; vert = new int[n]; pos = new int[n];
+            int max = t.maxDegree();
+            bin  = new int[max + 2];
+            for (int v = 0; v < n; v++) bin[(deg[v] = t.degree(v)) + 1]++;
+            for (int d = 0; d <= max; d++) bin[d + 1] += bin[d];
+            int[] fill = Arrays.copyOf(bin, max + 1);
+            for (int v = n - 1; v >= 0; v--) {      // ties: lowest index nearest the top
+                pos[v] = fill[deg[v]]++;
+                vert[pos[v]] = v;
+            }
+            hi = n;
+        }
+
+        boolean contains(int v) { return pos[v] >= lo && pos[v] < hi; }
+        boolean isEmpty()       { return lo == hi; }
+
+        // Callers decrement only nodes above the popped degree (as in BZ).
+        int popMin() {
+            int v = vert[lo++];
+            bin[deg[v]]++;
+            return v;
+        }
+
+        int popMax() { return vert[--hi]; }
+
+        // deg[u]--, keeping vert sorted: swap u with the first node of its block.
+        void decrement(int u) {
+            int du = deg[u], pu = pos[u], pw = Math.max(bin[du], lo), w = vert[pw];
+            if (u != w) { pos[u] = pw; vert[pw] = u; pos[w] = pu; vert[pu] = w; }
+            bin[du] = pw + 1;
+            deg[u]  = du - 1;
+        }
+
+        // Peel the minimum-degree node; a neighbour above its degree loses
+        // one. The degree a node has when peeled is its core number.
+        static int[] coreNumbers(Topology t) {
+            DegreeBuckets q = new DegreeBuckets(t);
+            while (!q.isEmpty()) {
+                int v = q.popMin();
+                for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++) {
+                    int u = t.targets[e];
+                    if (q.contains(u) && q.deg[u] > q.deg[v]) q.decrement(u);
+                }
+            }
+            return q.deg;
+        }
+
+        // Descending core number, then descending degree, then index: a
+        // stable counting sort by core over the cached degree order.
+        static int[] coreOrder(Topology t) {
+            int[] core  = t.coreNumbers(), byDegree = t.byDegree(), order = new int[t.n];
+            int   max   = t.maxCore();
+            int[] start = new int[max + 2];
+            for (int v = 0; v < t.n; v++) start[max - core[v] + 1]++;
+            for (int c = 0; c <= max; c++) start[c + 1] += start[c];
+            for (int v : byDegree) order[start[max - core[v]]++] = v;
+            return order;
+        }
+
+        // Adaptive HighDegree: repeatedly take the node with the most
+        // remaining neighbours and remove it from its neighbours' degrees.
+        static int[] adaptiveOrder(Topology t) {
+            DegreeBuckets q     = new DegreeBuckets(t);
+            int[]         order = new int[t.n];
+            for (int i = 0; !q.isEmpty(); i++) {
+                int v = order[i] = q.popMax();
+                for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++)
+                    if (q.contains(t.targets[e])) q.decrement(t.targets[e]);
+            }
+            return order;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — EdgeList (growable int edge buffer)
+    // ══════════════════════════════════════════════════════
+    static final class EdgeList {
+        int[] a, b;
+        int   size;
+
+        EdgeList(int capacity) {
+            a = new int[Math.max(capacity, 16)];
+            b = new int[a.length];
+        }
+
+        void add(int u, int v) {
+            if (size == a.length) {
+                int cap = (int) Math.min(Integer.MAX_VALUE - 8, 2L * a.length);
+                a = Arrays.copyOf(a, cap); b = Arrays.copyOf(b, cap);
+            }
+            a[size] = u; b[size] = v; size++;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — SimulationState (per-run flags)
+    // ══════════════════════════════════════════════════════
+    // Infected / vaccinated flags of a single run as packed bitsets over the
+    // Topology indices. The graph itself stays read-only, so any number of
+    // runs can share one DogGraph, each paying only 2·N/8 bytes.
+    static final class SimulationState {
+        final int    n;
+        final long[] infected, vaccinated;
+
+        SimulationState(int n) {
+            this.n     = n;
+            infected   = new long[(n + 63) >>> 6];
+            vaccinated = new long[(n + 63) >>> 6];
+        }
+
+        boolean isInfected(int v)   { return (infected[v >>> 6]   & (1L << v)) != 0; }
+        boolean isVaccinated(int v) { return (vaccinated[v >>> 6] & (1L << v)) != 0; }
+        void    infect(int v)       { infected[v >>> 6]   |= 1L << v; }
+        void    vaccinate(int v)    { vaccinated[v >>> 6] |= 1L << v; }
+
+        int infectedCount()   { return bitCount(infected); }
+        int vaccinatedCount() { return bitCount(vaccinated); }
+
+        void clear() {
+            Arrays.fill(infected, 0L);
+            Arrays.fill(vaccinated, 0L);
+        }
+
+        static int bitCount(long[] bits) {
+            int c = 0;
+            for (long w : bits) c += Long.bitCount(w);
+            return c;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — NodeSet (bitset + member list)
+    // ══════════════════════════════════════════════════════
+    // Reusable set of node indices: O(1) add/contains on a bitset, members
+    // listed in insertion order, and clear() in O(size) rather than O(N).
+    static final class NodeSet {
+        final long[] bits;
+        int[]        items = new int[16];
+        int          size;
+
+        NodeSet(int n) { bits = new long[(n + 63) >>> 6]; }
+
+        boolean contains(int v) { return (bits[v >>> 6] & (1L << v)) != 0; }
+
+        boolean add(int v) {
+            if (contains(v)) return false;
+            bits[v >>> 6] |= 1L << v;
+            if (size == items.length) items = Arrays.copyOf(items, 2 * size);
+            items[size++] = v;
+            return true;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) bits[items[i] >>> 6] = 0;
+            size = 0;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — SpreadEngine (one run -> counts)
+    // ══════════════════════════════════════════════════════
+    static abstract class SpreadEngine {
+        final Topology topo;
+        double         infectionProb = INFECTION_PROB;
+        long           edgeSeed;             // != 0: coins come from edgeCoin, not the rng
+        int            everInfected, finalInfected, vaccinated;
+
+        SpreadEngine(Topology t) { topo = t; }
+
+        // Transmission coin of the undirected edge {u,v}, a pure function of
+        // edgeSeed: every run sharing the seed sees the same open edges no
+        // matter which strategy ran or in which order edges were tried.
+        static double edgeCoin(long edgeSeed, int u, int v) {
+            long z = edgeSeed + ((long) Math.min(u, v) << 32 | Math.max(u, v)) * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return ((z ^ (z >>> 31)) >>> 11) * 0x1.0p-53;
+        }
+
+        abstract void run(SimulationState s, RandomGenerator rng);
+
+        // A new engine of the same kind over the same topology, for another thread.
+        abstract SpreadEngine fresh();
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — SpreadKernel (allocation-free SI spread)
+    // ══════════════════════════════════════════════════════
+    // Probabilistic BFS over one Topology, reused run after run. The frontier
+    // is a preallocated int queue of N slots (each dog is enqueued at most
+    // once per run, so it never wraps) and the counts are left in fields, so
+    // a warmed-up kernel allocates nothing per run. The caller supplies the
+    // run's generator, which makes every run replayable from its seed.
+    static final class SpreadKernel extends SpreadEngine {
+        final int[] frontier;
+
+        SpreadKernel(Topology t) {
+            super(t);
+            frontier = new int[t.n];
+        }
+
+        @Override
+        SpreadEngine fresh() { return new SpreadKernel(topo); }
+
+        @Override
+        void run(SimulationState s, RandomGenerator rng) {
+            final int[]  off = topo.offsets, tgt = topo.targets;
+            final long[] inf = s.infected, vac = s.vaccinated;
+            final double p   = infectionProb;
+            final long   crn = edgeSeed;
+            int head = 0, tail = 0;
+            for (int i = 0; i < inf.length; i++)
+                for (long w = inf[i]; w != 0; w &= w - 1)
+                    frontier[tail++] = (i << 6) + Long.numberOfTrailingZeros(w);
+            int ever = tail;
+            while (head < tail) {
+                int cur = frontier[head++];
+                for (int e = off[cur], end = off[cur + 1]; e < end; e++) {
+                    int  nb   = tgt[e];
+                    long mask = 1L << nb;
+                    if (((inf[nb >>> 6] | vac[nb >>> 6]) & mask) == 0
+                            && (crn != 0 ? edgeCoin(crn, cur, nb) : rng.nextDouble()) < p) {
+                        inf[nb >>> 6] |= mask; ever++; frontier[tail++] = nb;
+                    }
+                }
+            }
+            everInfected  = ever;
+            finalInfected = s.infectedCount();
+            vaccinated    = s.vaccinatedCount();
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — BatchedSpreadKernel (64 runs per pass)
+    // ══════════════════════════════════════════════════════
+    // Bit-parallel SI spread: each dog's infected / vaccinated state is a
+    // 64-bit word with one bit per independent run ("lane"). A dog sits in
+    // the frontier while it has pending lanes it has not yet transmitted on,
+    // so one traversal advances all 64 runs. Transmission coins for a whole
+    // word are drawn at once from the binary expansion of p, truncated to
+    // MASK_BITS bits (p is resolved to 1/65536). A p within 2^-17 of 0 or 1
+    // that would round to exactly 0 or 1 uses one exact coin per lane.
+    static final class BatchedSpreadKernel {
+        static final int LANES     = 64;
+        static final int MASK_BITS = 16;
+
+        final Topology topo;
+        final long[]   infected, vaccinated, pending;
+        final int[]    queue;                // ring of N slots, each dog at most once
+        final int[]    everInfected = new int[LANES], finalInfected = new int[LANES],
+                       vaccinatedCount = new int[LANES];
+        final int      probBits;             // p · 2^MASK_BITS
+        final double   prob;
+        final boolean  perLane;              // 0 < p < 1 but probBits is 0 or 2^MASK_BITS
+
+        BatchedSpreadKernel(Topology t, double p) {
+            topo       = t;
+            infected   = new long[t.n];
+            vaccinated = new long[t.n];
+            pending    = new long[t.n];
+            queue      = new int[Math.max(1, t.n)];
+            prob       = p;
+            probBits   = (int) Math.round(Math.min(Math.max(p, 0), 1) * (1 << MASK_BITS));
+            perLane    = p > 0 && p < 1 && (probBits == 0 || probBits == 1 << MASK_BITS);
+        }
+
+        void clear() {
+            Arrays.fill(infected, 0L);
+            Arrays.fill(vaccinated, 0L);
+        }
+
+        // Copies one prepared run into the given lane.
+        void load(int lane, SimulationState s) {
+            long bit = 1L << lane;
+            for (int i = 0; i < s.infected.length; i++) {
+                for (long w = s.infected[i]; w != 0; w &= w - 1)
+                    infected[(i << 6) + Long.numberOfTrailingZeros(w)] |= bit;
+                for (long w = s.vaccinated[i]; w != 0; w &= w - 1)
+                    vaccinated[(i << 6) + Long.numberOfTrailingZeros(w)] |= bit;
+            }
+        }
+
+        // Each bit is 1 with probability probBits / 2^MASK_BITS: walk the
+        // binary digits of p from the least significant set bit up, OR-ing a
+        // random word for a 1 digit and AND-ing for a 0 digit. Sparse
+        // candidate words and perLane fall back to one coin per lane.
+        long coinMask(long candidates, RandomGenerator rng) {
+            if (prob >= 1) return candidates;
+            if (perLane || Long.bitCount(candidates) <= 4) {
+                long m = 0;
+                for (long w = candidates; w != 0; w &= w - 1)
+                    if (rng.nextDouble() < prob) m |= Long.lowestOneBit(w);
+                return m;
+            }
+            long m = 0;
+            for (int i = Integer.numberOfTrailingZeros(probBits); i < MASK_BITS; i++)
+                m = ((probBits >>> i) & 1) != 0 ? m | rng.nextLong() : m & rng.nextLong();
+            return m & candidates;
+        }
+
+        void run(RandomGenerator rng) {
+            final int[] off = topo.offsets, tgt = topo.targets;
+            final int   n   = topo.n;
+            int head = 0, size = 0;
+            for (int v = 0; v < n; v++) {
+                pending[v] = infected[v];
+                if (pending[v] != 0) { queue[size++] = v; }
+            }
+            int tail = size % queue.length;
+            while (size > 0) {
+                int  cur   = queue[head];
+                long lanes = pending[cur];
+                head = head + 1 == queue.length ? 0 : head + 1; size--;
+                pending[cur] = 0;
+                for (int e = off[cur], end = off[cur + 1]; e < end; e++) {
+                    int  nb   = tgt[e];
+                    long cand = lanes & ~infected[nb] & ~vaccinated[nb];
+                    if (cand == 0 || prob <= 0) continue;
+                    long hit = coinMask(cand, rng);
+                    if (hit == 0) continue;
+                    infected[nb] |= hit;
+                    if (pending[nb] == 0) {
+                        queue[tail] = nb;
+                        tail = tail + 1 == queue.length ? 0 : tail + 1; size++;
+                    }
+                    pending[nb] |= hit;
+                }
+            }
+            Arrays.fill(finalInfected, 0);
+            Arrays.fill(vaccinatedCount, 0);
+            for (int v = 0; v < n; v++) {
+                for (long w = infected[v]; w != 0; w &= w - 1)   finalInfected[Long.numberOfTrailingZeros(w)]++;
+                for (long w = vaccinated[v]; w != 0; w &= w - 1) vaccinatedCount[Long.numberOfTrailingZeros(w)]++;
+            }
+            System.arraycopy(finalInfected, 0, everInfected, 0, LANES);
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — PercolationEngine (union-find final size)
+    // ══════════════════════════════════════════════════════
+    // The SI spread gives every edge at most one Bernoulli(p) trial, so its
+    // final infected set is the union of the bond-percolation clusters that
+    // hold a seed. sample() opens each undirected edge once; outbreak() then
+    // answers any seed / vaccination set over that same sample with a
+    // union-find in O(N + E·α). Vaccinated dogs block an edge unless they are
+    // themselves seeds, matching the BFS, where an infected dog always spreads.
+    static final class PercolationEngine extends SpreadEngine {
+        final long[] open;                   // bit per CSR slot, only slots with u < v
+        final int[]  parent, size;
+
+        PercolationEngine(Topology t) {
+            super(t);
+            open   = new long[(t.targets.length + 63) >>> 6];
+            parent = new int[t.n];
+            size   = new int[t.n];
+        }
+
+        @Override
+        void run(SimulationState s, RandomGenerator rng) {
+            sample(rng, infectionProb);
+            outbreak(s);
+        }
+
+        @Override
+        SpreadEngine fresh() { return new PercolationEngine(topo); }
+
+        void sample(RandomGenerator rng, double p) {
+            final int[] off = topo.offsets, tgt = topo.targets;
+            Arrays.fill(open, 0L);
+            for (int u = 0; u < topo.n; u++)
+                for (int e = off[u], end = off[u + 1]; e < end; e++)
+                    if (u < tgt[e] && (edgeSeed != 0 ? edgeCoin(edgeSeed, u, tgt[e]) : rng.nextDouble()) < p)
+                        open[e >>> 6] |= 1L << e;
+        }
+
+        void outbreak(SimulationState s) {
+            final int[] off = topo.offsets, tgt = topo.targets;
+            for (int v = 0; v < topo.n; v++) { parent[v] = v; size[v] = 1; }
+            for (int u = 0; u < topo.n; u++) {
+                if (!passable(s, u)) continue;
+                for (int e = off[u], end = off[u + 1]; e < end; e++)
+                    if ((open[e >>> 6] & (1L << e)) != 0 && passable(s, tgt[e])) union(u, tgt[e]);
+            }
+            int total = 0;
+            for (int i = 0; i < s.infected.length; i++)
+                for (long w = s.infected[i]; w != 0; w &= w - 1) {
+                    int root = find((i << 6) + Long.numberOfTrailingZeros(w));
+                    if (size[root] > 0) { total += size[root]; size[root] = -size[root]; }
+                }
+            everInfected  = total;
+            finalInfected = total;
+            vaccinated    = s.vaccinatedCount();
+        }
+
+        static boolean passable(SimulationState s, int v) {
+            return !s.isVaccinated(v) || s.isInfected(v);
+        }
+
+        int find(int v) {
+            while (parent[v] != v) { parent[v] = parent[parent[v]]; v = parent[v]; }
+            return v;
+        }
+
+        void union(int a, int b) {
+            a = find(a); b = find(b);
+            if (a == b) return;
+            if (size[a] < size[b]) { int t = a; a = b; b = t; }
+            parent[b] = a; size[a] += size[b];
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — NewmanZiffSweep (outbreak size vs p)
+    // ══════════════════════════════════════════════════════
+    // Newman-Ziff: open the E edges one by one in random order on an
+    // incremental union-find, tracking the total size of seeded clusters.
+    // One pass gives S(k), the outbreak with exactly k open edges, for every
+    // k; the expected outbreak at any p is then Σ_k Binomial(E,k,p)·S(k).
+    static final class NewmanZiffSweep {
+        final Topology  topo;
+        final int       edges;
+        final int[]     edgeU, edgeV, order, parent, size;
+        final boolean[] seeded;
+        final double[]  sumByEdges;          // Σ over samples of S(k), k = 0..E
+        int             samples;
+
+        NewmanZiffSweep(Topology t) {
+            topo  = t;
+            edges = t.edgeCount();
+            edgeU = new int[edges]; edgeV = new int[edges]; order = new int[edges];
+            for (int u = 0, i = 0; u < t.n; u++)
+                for (int e = t.offsets[u]; e < t.offsets[u + 1]; e++)
+                    if (u < t.targets[e]) { edgeU[i] = u; edgeV[i] = t.targets[e]; order[i] = i; i++; }
+            parent     = new int[t.n];
+            size       = new int[t.n];
+            seeded     = new boolean[t.n];
+            sumByEdges = new double[edges + 1];
+        }
+
+        // Adds one sample for the state's seeds and vaccinations.
+        void run(SimulationState s, RandomGenerator rng) {
+            for (int i = edges - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1), tmp = order[i]; order[i] = order[j]; order[j] = tmp;
+            }
+            for (int v = 0; v < topo.n; v++) { parent[v] = v; size[v] = 1; seeded[v] = s.isInfected(v); }
+            int total = s.infectedCount();
+            sumByEdges[0] += total;
+            for (int k = 0; k < edges; k++) {
+                int u = edgeU[order[k]], v = edgeV[order[k]];
+                if (PercolationEngine.passable(s, u) && PercolationEngine.passable(s, v)) {
+                    int a = find(u), b = find(v);
+                    if (a != b) {
+                        if (seeded[a] != seeded[b]) total += seeded[a] ? size[b] : size[a];
+                        if (size[a] < size[b]) { int t = a; a = b; b = t; }
+                        parent[b] = a; size[a] += size[b]; seeded[a] |= seeded[b];
+                    }
+                }
+                sumByEdges[k + 1] += total;
+            }
+            samples++;
+        }
+
+        int find(int v) {
+            while (parent[v] != v) { parent[v] = parent[parent[v]]; v = parent[v]; }
+            return v;
+        }
+
+        // Binomial weights are built outward from the mode by recurrence and
+        // normalised, which avoids overflow for large E.
+        double expected(double p) {
+            if (samples == 0) return 0;
+            if (p <= 0 || edges == 0) return sumByEdges[0] / samples;
+            if (p >= 1) return sumByEdges[edges] / samples;
+            int    mode = (int) Math.min(edges, Math.floor((edges + 1) * p));
+            double odds = p / (1 - p), acc = sumByEdges[mode], norm = 1, w = 1;
+            for (int k = mode + 1; k <= edges && w > 1e-16; k++) {
+                w *= odds * (edges - k + 1) / k;
+                acc += w * sumByEdges[k]; norm += w;
+            }
+            w = 1;
+            for (int k = mode - 1; k >= 0 && w > 1e-16; k--) {
+                w *= (k + 1) / (odds * (edges - k));
+                acc += w * sumByEdges[k]; norm += w;
+            }
+            return acc / norm / samples;
+        }
+    }
+
     // ══════════════════════════════════════════════════════
     //  INNER CLASS — DogGraph
     // ══════════════════════════════════════════════════════
+    // Editable Dog objects for the GUI and the Dog-flag entry points; about
+    // six times the memory of its Topology, so simulations that never show
+    // a dog should build a Topology directly and pass that to Experiment.
     static class DogGraph {
         Map<Integer, Dog> dogs = new LinkedHashMap<>();
-        Random rand = new Random();
+        RandomGenerator   rand = new SplittableRandom();   // for the Dog-flag entry points
+        Topology topo;                       // CSR cache, dropped on any edit
+        Dog[]    nodes;                      // Dog by Topology index
 
         Dog getDog(int id) {
-            return dogs.computeIfAbsent(id, Dog::new);
+            Dog d = dogs.get(id);
+            if (d == null) {
+                d = new Dog(id, dogs.size());
+                dogs.put(id, d);
+                topo = null;
+            }
+            return d;
         }
 
         void addEdge(int a, int b) {
@@ -87,118 +778,190 @@ public class DogVaccinationApp extends Application {
             if (!da.neighbors.contains(db)) {
                 da.neighbors.add(db);
                 db.neighbors.add(da);
+                topo = null;
             }
         }
 
-        // ── Barabasi-Albert Scale-Free Graph ──────────────
-        static DogGraph buildScaleFreeGraph(int n, int edgesPerNode) {
-            DogGraph g    = new DogGraph();
-            Random   rand = new Random();
-            int      core = Math.min(edgesPerNode + 1, n);
+        synchronized Topology topology() {
+            if (topo == null) {
+                nodes = dogs.values().toArray(new Dog[0]);
+                topo  = Topology.of(this);
+            }
+            return topo;
+        }
 
-            for (int i = 0; i < core; i++) g.getDog(i);
-            for (int i = 0; i < core; i++)
-                for (int j = i+1; j < core; j++)
-                    g.addEdge(i, j);
+        // Selector for the current topology; an edit builds a new Topology,
+        // so strategies are prepared again after any change.
+        VaccinationStrategy.Selector selector(String strategy) {
+            return topology().selector(strategy);
+        }
 
-            for (int newId = core; newId < n; newId++) {
-                g.getDog(newId);
-                List<Dog> pool = new ArrayList<>();
-                for (Dog d : g.dogs.values()) {
-                    if (d.id == newId) continue;
-                    for (int k = 0; k < Math.max(1, d.degree()); k++) pool.add(d);
-                }
-                Collections.shuffle(pool, rand);
-                Set<Integer> chosen = new HashSet<>();
-                for (Dog target : pool) {
-                    if (chosen.size() >= edgesPerNode) break;
-                    if (chosen.add(target.id)) g.addEdge(newId, target.id);
-                }
-            }
+        // Materialises Dog nodes for a prebuilt topology and keeps it as
+        // the CSR cache; edges are copied without duplicate checks.
+        static DogGraph fromTopology(Topology t) {
+            DogGraph g = new DogGraph();
+            for (int v = 0; v < t.n; v++) g.getDog(t.ids[v]).neighbors = new ArrayList<>(t.degree(v));
+            Dog[] nodes = g.dogs.values().toArray(new Dog[0]);
+            for (int v = 0; v < t.n; v++)
+                for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++)
+                    nodes[v].neighbors.add(nodes[t.targets[e]]);
+            g.nodes = nodes;
+            g.topo  = t;
             return g;
         }
 
+        // ── Erdos-Renyi Random Graph (baseline) ──────────
+        static DogGraph buildRandomGraph(int n, double p) {
+            return fromTopology(Topology.random(n, p, new SplittableRandom()));
+        }
+
+        // ── Barabasi-Albert Scale-Free Graph ──────────────
+        static DogGraph buildScaleFreeGraph(int n, int edgesPerNode) {
+            return fromTopology(Topology.scaleFree(n, edgesPerNode, new SplittableRandom()));
+        }
+
         void reset() {
             dogs.values().forEach(d -> { d.infected = false; d.vaccinated = false; });
         }
 
+        // ── Dog flags <-> SimulationState ─────────────────
+        SimulationState captureState() {
+            Topology        t = topology();
+            SimulationState s = new SimulationState(t.n);
+            for (int v = 0; v < t.n; v++) {
+                if (nodes[v].infected)   s.infect(v);
+                if (nodes[v].vaccinated) s.vaccinate(v);
+            }
+            return s;
+        }
+
+        void applyState(SimulationState s) {
+            Topology t = topology();
+            for (int v = 0; v < t.n; v++) {
+                nodes[v].infected   = s.isInfected(v);
+                nodes[v].vaccinated = s.isVaccinated(v);
+            }
+        }
+
+        // Dog-flag entry points used by the GUI and tests; each one runs the
+        // state-based version below against a snapshot of the flags.
         void infectRandom(int count) {
-            List<Dog> list = new ArrayList<>(dogs.values());
-            Collections.shuffle(list, rand);
-            for (int i = 0; i < count && i < list.size(); i++)
-                list.get(i).infected = true;
+            SimulationState s = captureState(); infectRandom(s, count, rand); applyState(s);
+        }
+        void vaccinateRandom(int count) {
+            SimulationState s = captureState(); vaccinateRandom(s, count, rand); applyState(s);
+        }
+        void vaccinateHighDegree(int count) {
+            SimulationState s = captureState(); vaccinateHighDegree(s, count); applyState(s);
+        }
+        void vaccinateHighRiskArea(int count) {
+            SimulationState s = captureState();
+            vaccinateHighRiskArea(s, count, new NodeSet(s.n), new IndexSampler(s.n), rand);
+            applyState(s);
+        }
+        void vaccinate(String strategy, int count) {
+            SimulationState s = captureState();
+            selector(strategy).select(s, count, new Worker(new SpreadKernel(topology())), rand);
+            applyState(s);
+        }
+        int[] simulateSpread() {
+            SimulationState s = captureState();
+            int[] res = simulateSpread(s, rand);
+            applyState(s);
+            return res;
+        }
+
+        // The RandomGenerator-only overloads build a one-off IndexSampler
+        // (O(N)); repeated runs pass their Worker's sampler for O(count).
+        void infectRandom(SimulationState s, int count, RandomGenerator rng) {
+            infectRandom(s, count, new IndexSampler(s.n), rng);
+        }
+        static void infectRandom(SimulationState s, int count, IndexSampler pick, RandomGenerator rng) {
+            int k = pick.sample(count, rng);
+            for (int i = 0; i < k; i++) s.infect(pick.picked[i]);
         }
 
         // ── Strategy 1: Random ────────────────────────────
-        void vaccinateRandom(int count) {
-            List<Dog> list = new ArrayList<>(dogs.values());
-            Collections.shuffle(list, rand);
-            for (int i = 0; i < count && i < list.size(); i++)
-                list.get(i).vaccinated = true;
+        void vaccinateRandom(SimulationState s, int count, RandomGenerator rng) {
+            vaccinateRandom(s, count, new IndexSampler(s.n), rng);
+        }
+        static void vaccinateRandom(SimulationState s, int count, IndexSampler pick, RandomGenerator rng) {
+            int k = pick.sample(count, rng);
+            for (int i = 0; i < k; i++) s.vaccinate(pick.picked[i]);
         }
 
         // ── Strategy 2: HighDegree ────────────────────────
-        void vaccinateHighDegree(int count) {
-            List<Dog> list = new ArrayList<>(dogs.values());
-            list.sort((a, b) -> b.degree() - a.degree());
-            for (int i = 0; i < count && i < list.size(); i++)
-                list.get(i).vaccinated = true;
+        // O(count) per run over the topology's cached degree order.
+        void vaccinateHighDegree(SimulationState s, int count) {
+            int[] order = topology().byDegree();
+            for (int i = 0; i < count && i < order.length; i++) s.vaccinate(order[i]);
         }
 
         // ── Strategy 3: HighRiskArea ──────────────────────
-        void vaccinateHighRiskArea(int count) {
-            Set<Dog> targets = new LinkedHashSet<>();
-            dogs.values().stream().filter(d -> d.infected)
-                .forEach(d -> targets.addAll(d.neighbors));
-            List<Dog> list = new ArrayList<>(targets);
-            Collections.shuffle(list, rand);
-            int i = 0;
-            for (; i < count && i < list.size(); i++) list.get(i).vaccinated = true;
+        // Neighbours of infected dogs first, in random order, then random
+        // dogs outside that ring. O(N/64 + ring + count): the ring is
+        // collected from the infected bitset words into a reusable NodeSet,
+        // only `count` shuffle steps are taken, and the fallback draws from
+        // the sampler, skipping ring members.
+        void vaccinateHighRiskArea(SimulationState s, int count, NodeSet ring, IndexSampler pick,
+                                   RandomGenerator rng) {
+            vaccinateHighRiskArea(topology(), s, count, ring, pick, rng);
+        }
+        static void vaccinateHighRiskArea(Topology t, SimulationState s, int count, NodeSet ring,
+                                          IndexSampler pick, RandomGenerator rng) {
+            long[] inf = s.infected;
+            ring.clear();
+            for (int w = 0; w < inf.length; w++)
+                for (long bits = inf[w]; bits != 0; bits &= bits - 1) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++) ring.add(t.targets[e]);
+                }
+            int[] r = ring.items;
+            int   i = 0;
+            for (; i < count && i < ring.size; i++) {
+                int j = i + rng.nextInt(ring.size - i), v = r[j];
+                r[j] = r[i]; r[i] = v;
+                s.vaccinate(v);
+            }
             if (i < count) {
-                List<Dog> rest = new ArrayList<>(dogs.values());
-                rest.removeAll(list);
-                Collections.shuffle(rest, rand);
-                for (int j = 0; i < count && j < rest.size(); i++, j++)
-                    rest.get(j).vaccinated = true;
+                for (int v; i < count && (v = pick.next(rng)) >= 0; )
+                    if (!ring.contains(v)) { s.vaccinate(v); i++; }
+                pick.restore();
             }
         }
 
         // ── Probabilistic BFS Spread (SI Model) ──────────
-        int[] simulateSpread() {
-            Random     r     = new Random();
-            Queue<Dog> queue = new LinkedList<>();
-            int        ever  = 0;
-            for (Dog d : dogs.values()) if (d.infected) { ever++; queue.add(d); }
-            while (!queue.isEmpty()) {
-                Dog cur = queue.poll();
-                for (Dog nb : cur.neighbors) {
-                    if (!nb.infected && !nb.vaccinated && r.nextDouble() < INFECTION_PROB) {
-                        nb.infected = true; ever++; queue.add(nb);
-                    }
-                }
-            }
-            int fin = 0, vacc = 0;
-            for (Dog d : dogs.values()) { if (d.infected) fin++; if (d.vaccinated) vacc++; }
-            return new int[]{ ever, fin, vacc };
+        // One-off convenience wrapper; repeated runs should hold their own
+        // SpreadKernel (see Experiment) to avoid per-call allocation.
+        int[] simulateSpread(SimulationState s, RandomGenerator rng) {
+            SpreadKernel k = new SpreadKernel(topology());
+            k.run(s, rng);
+            return new int[]{ k.everInfected, k.finalInfected, k.vaccinated };
         }
 
         // ── BFS Waves for Animation ───────────────────────
         List<List<Integer>> getWaves() {
-            Random              r       = new Random();
-            Queue<Integer>      q       = new LinkedList<>();
-            boolean[]           visited = new boolean[dogs.size()];
+            return getWaves(rand);
+        }
+
+        List<List<Integer>> getWaves(RandomGenerator r) {
+            Topology            t       = topology();
+            int[]               queue   = new int[t.n];
+            boolean[]           visited = new boolean[t.n];
             List<List<Integer>> waves   = new ArrayList<>();
-            dogs.values().stream().filter(d -> d.infected)
-                .forEach(d -> { q.add(d.id); visited[d.id] = true; });
-            while (!q.isEmpty()) {
+            int                 head    = 0, tail = 0;
+            for (int v = 0; v < t.n; v++)
+                if (nodes[v].infected) { queue[tail++] = v; visited[v] = true; }
+            while (head < tail) {
                 List<Integer> wave = new ArrayList<>();
-                int sz = q.size();
-                for (int k = 0; k < sz; k++) {
-                    Dog cur = dogs.get(q.poll());
-                    for (Dog nb : cur.neighbors) {
-                        if (!visited[nb.id] && !nb.vaccinated && r.nextDouble() < INFECTION_PROB) {
-                            visited[nb.id] = true; nb.infected = true;
-                            wave.add(nb.id); q.add(nb.id);
+                int waveEnd = tail;
+                while (head < waveEnd) {
+                    int cur = queue[head++];
+                    for (int e = t.offsets[cur], end = t.offsets[cur + 1]; e < end; e++) {
+                        int nb = t.targets[e];
+                        if (!visited[nb] && !nodes[nb].vaccinated && r.nextDouble() < INFECTION_PROB) {
+                            visited[nb] = true; nodes[nb].infected = true;
+                            wave.add(t.ids[nb]); queue[tail++] = nb;
                         }
                     }
                 }
@@ -208,10 +971,13 @@ public class DogVaccinationApp extends Application {
         }
 
         double averageDegree() {
-            return dogs.values().stream().mapToInt(Dog::degree).average().orElse(0);
+            return topology().averageDegree();
         }
         int maxDegree() {
-            return dogs.values().stream().mapToInt(Dog::degree).max().orElse(0);
+            return topology().maxDegree();
+        }
+        int maxCore() {
+            return topology().maxCore();
         }
     }
 
@@ -224,90 +990,1051 @@ public class DogVaccinationApp extends Application {
             strategy=s; run=r; everInfected=res[0];
             finalInfected=res[1]; vaccinated=res[2]; total=t;
         }
+        SimulationResult(String s, int r, int ever, int fin, int vacc, int t) {
+            strategy=s; run=r; everInfected=ever; finalInfected=fin; vaccinated=vacc; total=t;
+        }
+        SimulationResult(String s, int r, SpreadEngine k) {
+            this(s, r, k.everInfected, k.finalInfected, k.vaccinated, k.topo.n);
+        }
         double infectionRate() { return finalInfected*100.0/total; }
     }
 
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — RunningStats (Welford, constant memory)
+    // ══════════════════════════════════════════════════════
+    static final class RunningStats {
+        long   count;
+        double mean, m2, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+        void add(double x) {
+            count++;
+            double d = x - mean;
+            mean += d / count;
+            m2   += d * (x - mean);
+            min   = Math.min(min, x); max = Math.max(max, x);
+        }
+
+        // Chan et al. pairwise update, so workers can aggregate separately.
+        RunningStats merge(RunningStats o) {
+            if (o.count == 0) return this;
+            long   n = count + o.count;
+            double d = o.mean - mean;
+            mean += d * o.count / n;
+            m2   += o.m2 + d * d * ((double) count * o.count / n);
+            count = n;
+            min   = Math.min(min, o.min); max = Math.max(max, o.max);
+            return this;
+        }
+
+        double variance() { return count > 1 ? m2 / (count - 1) : 0; }
+        double stdDev()   { return Math.sqrt(variance()); }
+
+        // Half width of the normal-approximation 95% CI of the mean.
+        double ci95() {
+            return count > 1 ? 1.96 * stdDev() / Math.sqrt(count) : Double.POSITIVE_INFINITY;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — OutbreakHistogram (size distribution)
+    // ══════════════════════════════════════════════════════
+    // Fixed-bucket histogram of final outbreak sizes over [0, N]: exact for
+    // N < MAX_BUCKETS, otherwise buckets of equal width. Same-N histograms
+    // merge by adding counts, so each worker fills its own without locks.
+    // SI outbreaks on scale-free graphs are bimodal, so the quantiles and
+    // the large-outbreak share say far more than the mean.
+    static final class OutbreakHistogram {
+        static final int MAX_BUCKETS = 1024;
+
+        final int    population, width;
+        final long[] counts;
+        long         total;
+
+        OutbreakHistogram(int population) {
+            this.population = population;
+            int buckets = Math.min(population + 1, MAX_BUCKETS);
+            width  = (population + buckets) / buckets;        // ceil((N+1) / buckets)
+            counts = new long[(population + width) / width];
+        }
+
+        void add(int size) {
+            counts[Math.min(Math.max(size, 0), population) / width]++;
+            total++;
+        }
+
+        OutbreakHistogram merge(OutbreakHistogram o) {
+            for (int b = 0; b < counts.length; b++) counts[b] += o.counts[b];
+            total += o.total;
+            return this;
+        }
+
+        int bucketLow(int b)  { return b * width; }
+        int bucketHigh(int b) { return Math.min(population, b * width + width - 1); }
+
+        // Upper edge of the bucket holding the q-quantile (exact if width 1).
+        int quantile(double q) {
+            long need = Math.max(1, (long) Math.ceil(q * total)), seen = 0;
+            for (int b = 0; b < counts.length; b++)
+                if ((seen += counts[b]) >= need) return bucketHigh(b);
+            return population;
+        }
+
+        // Share of runs whose outbreak reached `fraction` of the population,
+        // resolved to bucket granularity.
+        double largeOutbreakProbability(double fraction) {
+            if (total == 0) return 0;
+            int  from = (int) Math.ceil(fraction * population) / width;
+            long hit  = 0;
+            for (int b = from; b < counts.length; b++) hit += counts[b];
+            return (double) hit / total;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — StrategyStats (per-strategy aggregates)
+    // ══════════════════════════════════════════════════════
+    static final class StrategyStats {
+        final String            strategy;
+        final RunningStats      ever = new RunningStats(), fin = new RunningStats(), vacc = new RunningStats();
+        final OutbreakHistogram sizes;
+
+        StrategyStats(String strategy, int population) {
+            this.strategy = strategy;
+            sizes         = new OutbreakHistogram(population);
+        }
+
+        void add(SimulationResult r) { add(r.everInfected, r.finalInfected, r.vaccinated); }
+
+        void add(int everInfected, int finalInfected, int vaccinated) {
+            ever.add(everInfected); fin.add(finalInfected); vacc.add(vaccinated);
+            sizes.add(finalInfected);
+        }
+
+        StrategyStats merge(StrategyStats o) {
+            ever.merge(o.ever); fin.merge(o.fin); vacc.merge(o.vacc);
+            sizes.merge(o.sizes);
+            return this;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — IndexSampler (partial Fisher-Yates)
+    // ══════════════════════════════════════════════════════
+    // k distinct indices out of 0..n-1 in O(k): the first k steps of a
+    // Fisher-Yates shuffle over a persistent permutation. next() draws one
+    // at a time; restore() undoes the swaps in reverse, putting `perm` back
+    // to the identity so every draw depends only on its own generator.
+    static final class IndexSampler {
+        final int[] perm;
+        int[]       swaps  = new int[16], picked = new int[16];
+        int         taken;
+
+        IndexSampler(int n) {
+            perm = new int[n];
+            for (int i = 0; i < n; i++) perm[i] = i;
+        }
+
+        // Next uniformly chosen unseen index, or -1 once all n are drawn.
+        int next(RandomGenerator rng) {
+            if (taken == perm.length) return -1;
+            if (taken == swaps.length) swaps = Arrays.copyOf(swaps, Math.min(perm.length, 2 * taken));
+            int i = taken++, j = i + rng.nextInt(perm.length - i), v = perm[j];
+            perm[j] = perm[i]; perm[i] = v; swaps[i] = j;
+            return v;
+        }
+
+        void restore() {
+            while (taken > 0) {
+                int i = --taken, j = swaps[i], v = perm[i];
+                perm[i] = perm[j]; perm[j] = v;
+            }
+        }
+
+        // Draws min(k, n) indices into picked[0..] and restores.
+        int sample(int k, RandomGenerator rng) {
+            k = Math.min(k, perm.length);
+            if (picked.length < k) picked = new int[k];
+            for (int i = 0; i < k; i++) picked[i] = next(rng);
+            restore();
+            return k;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — SplitMix64 (re-seedable generator)
+    // ══════════════════════════════════════════════════════
+    // The SplitMix64 generator behind SplittableRandom, with the same
+    // nextLong / nextInt mixing, so reseed(s) gives exactly the stream of
+    // new SplittableRandom(s) without allocating one per run.
+    static final class SplitMix64 implements RandomGenerator {
+        static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+        private long seed;
+
+        SplitMix64 reseed(long s) { seed = s; return this; }
+
+        static long mix64(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+
+        @Override public long nextLong() { return mix64(seed += GOLDEN_GAMMA); }
+
+        @Override public int nextInt() {
+            long z = seed += GOLDEN_GAMMA;
+            z = (z ^ (z >>> 33)) * 0x62A9D9ED799705F5L;
+            return (int) (((z ^ (z >>> 28)) * 0xCB24D0A5C88C35B3L) >>> 32);
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — Worker (thread-confined run scratch)
+    // ══════════════════════════════════════════════════════
+    // Everything one thread needs to execute runs: its own SimulationState,
+    // spread engine, index sampler, node set, re-seedable generators and,
+    // once needed, tally counters and batch kernel. Never shared.
+    static final class Worker {
+        final SimulationState state;
+        final SpreadEngine    engine;
+        final IndexSampler    sampler;
+        final NodeSet         ring;
+        final SplitMix64      rng    = new SplitMix64();   // the run's own stream
+        final SplitMix64      shared = new SplitMix64();   // CRN seeds shared across strategies
+        BatchedSpreadKernel   batch;
+        int[]                 tally;         // per-node counters, see tally()
+
+        Worker(SpreadEngine engine) {
+            this.engine = engine;
+            state       = new SimulationState(engine.topo.n);
+            sampler     = new IndexSampler(engine.topo.n);
+            ring        = new NodeSet(engine.topo.n);
+        }
+
+        // Counters a strategy may use for the nodes it has put in `ring`;
+        // entries outside the ring are stale.
+        int[] tally() {
+            return tally != null ? tally : (tally = new int[state.n]);
+        }
+
+        BatchedSpreadKernel batch(double p) {
+            if (batch == null || batch.prob != p) batch = new BatchedSpreadKernel(engine.topo, p);
+            return batch;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — VaccinationStrategy / StrategyRegistry
+    // ══════════════════════════════════════════════════════
+    // prepare() does the per-graph work (rankings, centralities) once; the
+    // Selector it returns is read-only, shared by all threads, and picks one
+    // run's vaccinations using only the caller's Worker scratch.
+    interface VaccinationStrategy {
+        Selector prepare(Topology t);
+
+        interface Selector {
+            void select(SimulationState s, int count, Worker w, RandomGenerator rng);
+        }
+    }
+
+    // Fixed ranking computed once per graph; each run vaccinates its prefix.
+    static final class RankedStrategy implements VaccinationStrategy {
+        final Function<Topology, int[]> rank;
+
+        RankedStrategy(Function<Topology, int[]> rank) { this.rank = rank; }
+
+        @Override
+        public Selector prepare(Topology t) {
+            int[] order = rank.apply(t);
+            return (s, count, w, rng) -> {
+                for (int i = 0; i < count && i < order.length; i++) s.vaccinate(order[i]);
+            };
+        }
+
+        // Node indices by descending score, ties in index order. Bottom-up
+        // merge sort of a primitive index array (stable, O(N log N), two
+        // int[N] buffers) instead of sorting boxed Integers with a comparator.
+        static int[] byScore(double[] score) {
+            int   n = score.length;
+            int[] a = new int[n], b = new int[n];
+            for (int v = 0; v < n; v++) a[v] = v;
+            for (int width = 1; width < n; width <<= 1) {
+                for (int lo = 0; lo < n; lo += 2 * width) {
+                    int mid = Math.min(lo + width, n), hi = Math.min(lo + 2 * width, n);
+                    int i = lo, j = mid, k = lo;
+                    while (i < mid && j < hi)
+                        b[k++] = Double.compare(score[a[j]], score[a[i]]) > 0 ? a[j++] : a[i++];
+                    while (i < mid) b[k++] = a[i++];
+                    while (j < hi)  b[k++] = a[j++];
+                }
+                int[] tmp = a; a = b; b = tmp;
+            }
+            return a;
+        }
+    }
+
+    // Acquaintance immunization: ask a random dog for a random contact and
+    // vaccinate a contact once it has been named k times. Needs only local
+    // knowledge. For k = 1 a run costs O(count) expected draws; for k >= 2 a
+    // dose needs a repeat nomination, so the draws grow with N (birthday
+    // bound, about sqrt(count · N) on sparse graphs). The cap of
+    // attemptsPerDose · count · k + 4N draws only stops runs on graphs where
+    // too few dogs qualify; doses it leaves unplaced show up as a low
+    // AvgVaccinated and a warning in compareStrategies.
+    static final class AcquaintanceStrategy implements VaccinationStrategy {
+        final int k;
+        int       attemptsPerDose = 100;
+
+        AcquaintanceStrategy(int k) { this.k = k; }
+
+        @Override
+        public Selector prepare(Topology t) {
+            return (s, count, w, rng) -> {
+                if (t.n == 0) return;
+                NodeSet named = w.ring;              // dogs named so far this run
+                int[]   tally = w.tally();
+                named.clear();
+                long max = (long) attemptsPerDose * count * k + 4L * t.n;
+                for (long tries = 0; count > 0 && tries < max; tries++) {
+                    int v = rng.nextInt(t.n), d = t.degree(v);
+                    if (d == 0) continue;
+                    int u = t.targets[t.offsets[v] + rng.nextInt(d)];
+                    if (named.add(u)) tally[u] = 0;
+                    if (++tally[u] == k && !s.isVaccinated(u)) { s.vaccinate(u); count--; }
+                }
+            };
+        }
+    }
+
+    static final class StrategyRegistry {
+        private static final Map<String, VaccinationStrategy> STRATEGIES = new LinkedHashMap<>();
+
+        static {
+            register("Random",       t -> (s, count, w, rng) -> DogGraph.vaccinateRandom(s, count, w.sampler, rng));
+            register("HighDegree",   new RankedStrategy(Topology::byDegree));
+            register("HighRiskArea", t -> (s, count, w, rng) -> DogGraph.vaccinateHighRiskArea(t, s, count, w.ring, w.sampler, rng));
+            register("AdaptiveHighDegree", new RankedStrategy(DegreeBuckets::adaptiveOrder));
+            register("Betweenness",  new RankedStrategy(t -> RankedStrategy.byScore(new Betweenness().scores(t))));
+            register("PageRank",     new RankedStrategy(t -> RankedStrategy.byScore(new PageRank().scores(t))));
+            register("KCore",        new RankedStrategy(DegreeBuckets::coreOrder));
+            register("Acquaintance",  new AcquaintanceStrategy(1));
+            register("Acquaintance2", new AcquaintanceStrategy(2));
+            register("CollectiveInfluence", new CollectiveInfluence(2));
+        }
+
+        static synchronized void register(String name, VaccinationStrategy strategy) {
+            STRATEGIES.put(name, strategy);
+        }
+
+        static synchronized VaccinationStrategy get(String name) {
+            VaccinationStrategy st = STRATEGIES.get(name);
+            if (st == null) throw new IllegalArgumentException("Unknown vaccination strategy: " + name);
+            return st;
+        }
+
+        static synchronized String[] names() { return STRATEGIES.keySet().toArray(new String[0]); }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — Betweenness (parallel Brandes)
+    // ══════════════════════════════════════════════════════
+    // Shortest-path betweenness by Brandes' accumulation, one BFS per source,
+    // sources split over the common ForkJoinPool. Up to exactLimit dogs every
+    // dog is a source. Above that, k pivots are sampled with
+    // k = ln(2N/delta) / (2·epsilon²) (Hoeffding plus a union bound over all
+    // dogs), and scores are scaled by N/k, so each score normalised by
+    // (N-1)(N-2) is within epsilon of the exact value with probability at
+    // least 1 - delta.
+    static final class Betweenness {
+        static final int LEAVES = 64;        // at most this many leaf tasks (and score arrays)
+
+        int    exactLimit = 5_000;
+        double epsilon    = 0.05, delta = 0.1;
+        long   seed       = 0x2545F4914F6CDD1DL;   // pivot choice, fixed per graph
+
+        int pivots(int n) {
+            if (n <= exactLimit) return n;
+            return (int) Math.min(n, Math.ceil(Math.log(2.0 * n / delta) / (2 * epsilon * epsilon)));
+        }
+
+        double[] scores(Topology t) {
+            int   k   = pivots(t.n);
+            int[] src = new int[k];
+            if (k == t.n) {
+                for (int v = 0; v < k; v++) src[v] = v;
+            } else {
+                IndexSampler pick = new IndexSampler(t.n);
+                pick.sample(k, new SplittableRandom(seed));
+                System.arraycopy(pick.picked, 0, src, 0, k);
+            }
+            int      grain = Math.max(8, (k + LEAVES - 1) / LEAVES);
+            double[] bc    = k == 0 ? new double[t.n] : new BrandesTask(t, src, 0, k, grain).invoke();
+            if (k < t.n) for (int v = 0; v < t.n; v++) bc[v] *= (double) t.n / k;
+            return bc;
+        }
+
+        // Fixed split tree over the sources; leaves sum into their own
+        // array and halves are added in order, so scores do not depend on
+        // scheduling.
+        static final class BrandesTask extends RecursiveTask<double[]> {
+            private static final long serialVersionUID = 1L;
+
+            final Topology t; final int[] src; final int lo, hi, grain;
+
+            BrandesTask(Topology t, int[] src, int lo, int hi, int grain) {
+                this.t = t; this.src = src; this.lo = lo; this.hi = hi; this.grain = grain;
+            }
+
+            @Override
+            protected double[] compute() {
+                if (hi - lo <= grain) return leaf();
+                int mid = (lo + hi) >>> 1;
+                BrandesTask left = new BrandesTask(t, src, lo, mid, grain);
+                left.fork();
+                double[] right = new BrandesTask(t, src, mid, hi, grain).compute(), sum = left.join();
+                for (int v = 0; v < sum.length; v++) sum[v] += right[v];
+                return sum;
+            }
+
+            double[] leaf() {
+                int      n     = t.n;
+                int[]    off   = t.offsets, tgt = t.targets;
+                double[] bc    = new double[n], sigma = new double[n], dep = new double[n];
+                int[]    dist  = new int[n], order = new int[n];
+                Arrays.fill(dist, -1);
+                for (int i = lo; i < hi; i++) {
+                    int s = src[i], head = 0, tail = 0;
+                    order[tail++] = s; dist[s] = 0; sigma[s] = 1;
+                    while (head < tail) {
+                        int v = order[head++];
+                        for (int e = off[v]; e < off[v + 1]; e++) {
+                            int w = tgt[e];
+                            if (dist[w] < 0) { dist[w] = dist[v] + 1; order[tail++] = w; }
+                            if (dist[w] == dist[v] + 1) sigma[w] += sigma[v];
+                        }
+                    }
+                    // ── Dependencies in reverse BFS order ──────────
+                    for (int j = tail - 1; j > 0; j--) {
+                        int w = order[j];
+                        for (int e = off[w]; e < off[w + 1]; e++) {
+                            int v = tgt[e];
+                            if (dist[v] == dist[w] - 1) dep[v] += sigma[v] / sigma[w] * (1 + dep[w]);
+                        }
+                        bc[w] += dep[w];
+                    }
+                    for (int j = 0; j < tail; j++) {
+                        int v = order[j];
+                        dist[v] = -1; sigma[v] = 0; dep[v] = 0;
+                    }
+                }
+                return bc;
+            }
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — PageRank (parallel power iteration)
+    // ══════════════════════════════════════════════════════
+    // Pull-style power iteration over the CSR arrays: each node sums its
+    // neighbours' rank/degree, so threads write disjoint slots and need no
+    // locks. Nodes are cut into fixed blocks run in parallel, and the
+    // per-block residuals and dangling mass are summed in block order, so
+    // the stopping iteration does not depend on the thread count. Stops
+    // once the L1 change falls below tolerance, or after maxIterations.
+    static final class PageRank {
+        static final int BLOCK = 4096;
+
+        double damping = 0.85, tolerance = 1e-9;
+        int    maxIterations = 200;
+        int    iterations;                   // used by the last scores() call
+
+        double[] scores(Topology t) {
+            int      n       = t.n, blocks = (n + BLOCK - 1) / BLOCK;
+            double[] rank    = new double[n], next = new double[n], contrib = new double[n];
+            double[] partial = new double[blocks];
+            Arrays.fill(rank, 1.0 / n);
+            for (iterations = 0; iterations < maxIterations; ) {
+                final double[] r = rank;
+                // ── Contributions and dangling mass ───────────
+                IntStream.range(0, blocks).parallel().forEach(b -> {
+                    double dangling = 0;
+                    for (int v = b * BLOCK, end = Math.min(n, v + BLOCK); v < end; v++) {
+                        int d = t.degree(v);
+                        if (d == 0) dangling += r[v];
+                        contrib[v] = d == 0 ? 0 : r[v] / d;
+                    }
+                    partial[b] = dangling;
+                });
+                double dangling = 0;
+                for (double x : partial) dangling += x;
+                final double base = (1 - damping + damping * dangling) / n;
+                final double[] nx = next;
+                // ── Pull from neighbours ───────────────────────
+                IntStream.range(0, blocks).parallel().forEach(b -> {
+                    double diff = 0;
+                    for (int v = b * BLOCK, end = Math.min(n, v + BLOCK); v < end; v++) {
+                        double sum = 0;
+                        for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++) sum += contrib[t.targets[e]];
+                        nx[v] = base + damping * sum;
+                        diff += Math.abs(nx[v] - r[v]);
+                    }
+                    partial[b] = diff;
+                });
+                double diff = 0;
+                for (double x : partial) diff += x;
+                next = rank; rank = nx; iterations++;
+                if (diff < tolerance) break;
+            }
+            return rank;
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — CollectiveInfluence (CI_l, indexed max-heap)
+    // ══════════════════════════════════════════════════════
+    // CI_l(i) = (k_i - 1) · Σ (k_j - 1) over the dogs j exactly l hops from
+    // i, with degrees counted in the graph left after earlier removals.
+    // The top dog is removed and only the dogs within l + 1 hops of it are
+    // rescored, since no other ball changes; scores sit in an indexed
+    // max-heap so each rescore is O(log N). The order is built lazily:
+    // prepare() only scores every dog, and runs extend the removal
+    // sequence to the largest count asked for so far.
+    static final class CollectiveInfluence implements VaccinationStrategy {
+        final int radius;
+
+        CollectiveInfluence(int radius) { this.radius = radius; }
+
+        @Override
+        public Selector prepare(Topology t) {
+            Order ci = new Order(t, radius);
+            return (s, count, w, rng) -> {
+                int have = ci.extend(count);
+                for (int i = 0; i < have; i++) s.vaccinate(ci.order[i]);
+            };
+        }
+
+        static final class Order {
+            final Topology  t;
+            final int       radius;
+            final int[]     order, deg, heap, pos, stamp, dist, queue, near;
+            final long[]    key;
+            final boolean[] removed;
+            int             filled, size, epoch;
+
+            Order(Topology t, int radius) {
+                this.t = t; this.radius = radius;
+                int n = t.n;
+                order = new int[n]; deg = new int[n]; heap = new int[n]; pos = new int[n];
+                stamp = new int[n]; dist = new int[n]; queue = new int[n]; near = new int[n];
+                key   = new long[n]; removed = new boolean[n];
+                for (int v = 0; v < n; v++) deg[v] = t.degree(v);
+                for (int v = 0; v < n; v++) { key[v] = score(v); heap[size] = v; pos[v] = size++; }
+                for (int i = size / 2 - 1; i >= 0; i--) siftDown(i);
+            }
+
+            // Removes dogs until `count` are ordered (or none remain); the
+            // prefix is never rewritten, so callers may read order[0..result).
+            synchronized int extend(int count) {
+                while (filled < count && size > 0) {
+                    int v = heap[0];
+                    order[filled++] = v;
+                    removed[v] = true;
+                    move(size - 1, 0); size--;
+                    if (size > 0) siftDown(0);
+                    for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++)
+                        if (!removed[t.targets[e]]) deg[t.targets[e]]--;
+                    // ── Rescore the l+1 neighbourhood ─────────────
+                    int reached = ball(v, radius + 1);
+                    System.arraycopy(queue, 1, near, 0, reached - 1);   // score() reuses queue
+                    for (int i = 0; i < reached - 1; i++) {
+                        int u = near[i];
+                        long old = key[u];
+                        key[u] = score(u);
+                        if (key[u] > old) siftUp(pos[u]); else if (key[u] < old) siftDown(pos[u]);
+                    }
+                }
+                return Math.min(count, filled);
+            }
+
+            // BFS from `src` over live dogs (src itself may be removed) up to
+            // `depth` hops; returns how many were reached into queue[].
+            int ball(int src, int depth) {
+                int e0 = ++epoch, head = 0, tail = 0;
+                queue[tail++] = src; stamp[src] = e0; dist[src] = 0;
+                while (head < tail) {
+                    int v = queue[head++];
+                    if (dist[v] == depth) continue;
+                    for (int e = t.offsets[v]; e < t.offsets[v + 1]; e++) {
+                        int u = t.targets[e];
+                        if (!removed[u] && stamp[u] != e0) {
+                            stamp[u] = e0; dist[u] = dist[v] + 1; queue[tail++] = u;
+                        }
+                    }
+                }
+                return tail;
+            }
+
+            long score(int v) {
+                if (deg[v] <= 1) return 0;
+                long frontier = 0;
+                if (radius == 0) {
+                    frontier = deg[v] - 1;
+                } else {
+                    int reached = ball(v, radius);
+                    for (int i = reached - 1; i > 0 && dist[queue[i]] == radius; i--)
+                        frontier += deg[queue[i]] - 1;
+                }
+                return (deg[v] - 1) * frontier;
+            }
+
+            // Higher score first, lower index on ties.
+            boolean above(int a, int b) { return key[a] > key[b] || key[a] == key[b] && a < b; }
+
+            void move(int from, int to) { heap[to] = heap[from]; pos[heap[to]] = to; }
+
+            void siftUp(int i) {
+                int v = heap[i];
+                while (i > 0 && above(v, heap[(i - 1) >>> 1])) { move((i - 1) >>> 1, i); i = (i - 1) >>> 1; }
+                heap[i] = v; pos[v] = i;
+            }
+
+            void siftDown(int i) {
+                int v = heap[i];
+                for (int c; (c = 2 * i + 1) < size; i = c) {
+                    if (c + 1 < size && above(heap[c + 1], heap[c])) c++;
+                    if (!above(heap[c], v)) break;
+                    move(c, i);
+                }
+                heap[i] = v; pos[v] = i;
+            }
+        }
+    }
+
     // ══════════════════════════════════════════════════════
     //  INNER CLASS — Experiment
     // ══════════════════════════════════════════════════════
-    static class Experiment {
-        DogGraph graph; int runs, initInfected, vaccines;
+    // close() shuts down the ForkJoinPool a parallel experiment creates for
+    // itself; a caller-supplied pool is left running.
+    static class Experiment implements AutoCloseable {
+        static final int CHUNK = BatchedSpreadKernel.LANES;   // runs per task and per batch
+
+        int runs, initInfected, vaccines;
         List<SimulationResult> allResults = new ArrayList<>();
+        Topology     topo;
+        Worker       worker;                 // serial runs; the graph is never written
+        boolean      batched;                // 64 runs per traversal in runAll; p resolved to 1/65536
+        boolean      keepRuns = true;        // false: keep only the streaming stats
+        boolean      commonRandomNumbers;    // run r: same seeds and edge coins for all strategies
+        Map<String, StrategyStats> stats = new LinkedHashMap<>();
+        Map<String, int[]>  pairedFinals = new LinkedHashMap<>();   // CRN: final size by run
+        int          parallelism = 1;        // > 1 splits runAll over a ForkJoinPool
+        String[]     strategies = {"Random","HighDegree","HighRiskArea"};   // registry names compared
+        double       targetCi;               // > 0: compareStrategies stops at this ±95% CI (dogs)
+        int          maxRuns = 10_000;       // per-strategy cap for adaptive runs
+        double       infectionProb = INFECTION_PROB;
+        long         seed = new SplittableRandom().nextLong();   // set to replay
+        ForkJoinPool pool;                   // caller-supplied; null: own pool of `parallelism` threads
+        private ForkJoinPool ownPool;
+        ThreadLocal<Worker> workers;
+
+        Experiment(Topology t, int runs, int init, int vacc) {
+            topo=t; this.runs=runs; initInfected=init; vaccines=vacc;
+            worker = new Worker(new SpreadKernel(topo));
+        }
 
+        // Runs on the graph's current topology; later edits to g are not seen.
         Experiment(DogGraph g, int runs, int init, int vacc) {
-            graph=g; this.runs=runs; initInfected=init; vaccines=vacc;
+            this(g.topology(), runs, init, vacc);
+        }
+
+        // Swap the spread engine (e.g. for a PercolationEngine); parallel
+        // workers get fresh copies of the same kind.
+        void useEngine(SpreadEngine engine) {
+            worker  = new Worker(engine);
+            workers = null;
+        }
+
+        // Deterministic per-run seed: (seed, strategy, run) always yields
+        // the same seeds, vaccinations and transmission coins. Workers
+        // reseed their own SplitMix64 with it instead of allocating.
+        long runSeed(String strategy, int runNum) {
+            return seed ^ strategy.hashCode() * 0x9E3779B97F4A7C15L ^ runNum * 0xC2B2AE3D27D4EB4FL;
+        }
+        RandomGenerator runRng(String strategy, int runNum, Worker w) {
+            return w.rng.reseed(runSeed(strategy, runNum));
+        }
+
+        // Streams shared by every strategy of one run in CRN mode.
+        RandomGenerator sharedRng(int runNum, Worker w) {
+            return w.shared.reseed(seed ^ runNum * 0xC2B2AE3D27D4EB4FL ^ 0x632BE59BD9B4E019L);
+        }
+        long sharedEdgeSeed(int runNum) {
+            return SplitMix64.mix64((seed ^ runNum * 0x165667B19E3779F9L ^ 0x27BB2EE687B0B0FDL)
+                    + SplitMix64.GOLDEN_GAMMA) | 1;
+        }
+
+        // Clears and refills w.state with the run's seeds and vaccinations;
+        // the graph is never reset or written. In CRN mode the seeds come
+        // from the run's shared stream, so only the vaccination set differs.
+        void prepareRun(VaccinationStrategy.Selector sel, int runNum, RandomGenerator rng, Worker w) {
+            SimulationState st = w.state;
+            st.clear();
+            DogGraph.infectRandom(st, initInfected, w.sampler, commonRandomNumbers ? sharedRng(runNum, w) : rng);
+            sel.select(st, vaccines, w, rng);
+        }
+
+        // One run on w; its counts are left in w.engine. Allocates nothing.
+        // `sel` is topo.selector(strategy), resolved once by the caller.
+        void simulate(String strategy, VaccinationStrategy.Selector sel, int runNum, Worker w) {
+            RandomGenerator rng = runRng(strategy, runNum, w);
+            prepareRun(sel, runNum, rng, w);
+            w.engine.infectionProb = infectionProb;
+            w.engine.edgeSeed      = commonRandomNumbers ? sharedEdgeSeed(runNum) : 0;
+            w.engine.run(w.state, rng);
+        }
+
+        // Runs firstRun .. firstRun+count-1 (count <= 64) through the
+        // bit-parallel kernel; per-lane counts are left in w.batch. Seeds and
+        // vaccinations still come from each run's own stream; the batch
+        // draws its coins from one more.
+        void simulateBatch(String strategy, VaccinationStrategy.Selector sel,
+                           int firstRun, int count, Worker w) {
+            BatchedSpreadKernel batch = w.batch(infectionProb);
+            batch.clear();
+            for (int lane = 0; lane < count; lane++) {
+                prepareRun(sel, firstRun + lane, runRng(strategy, firstRun + lane, w), w);
+                batch.load(lane, w.state);
+            }
+            batch.run(runRng(strategy, -firstRun, w));
         }
 
         SimulationResult runOnce(String strategy, int runNum) {
-            graph.reset();
-            graph.infectRandom(initInfected);
-            switch (strategy) {
-                case "Random":       graph.vaccinateRandom(vaccines);       break;
-                case "HighDegree":   graph.vaccinateHighDegree(vaccines);   break;
-                case "HighRiskArea": graph.vaccinateHighRiskArea(vaccines);  break;
-            }
-            int[] res = graph.simulateSpread();
-            SimulationResult sr = new SimulationResult(strategy, runNum, res, graph.dogs.size());
-            allResults.add(sr);
+            simulate(strategy, topo.selector(strategy), runNum, worker);
+            SimulationResult sr = new SimulationResult(strategy, runNum, worker.engine);
+            stats.computeIfAbsent(strategy, k -> new StrategyStats(k, topo.n)).add(sr);
+            if (keepRuns) allResults.add(sr);
             return sr;
         }
 
+        // All `runs` runs of one strategy, aggregated in constant memory
+        // (per-run records are appended to allResults only if keepRuns).
+        // Runs are cut into fixed CHUNK-sized pieces whose seeds depend only
+        // on the run number, and serial and parallel execution merge chunk
+        // stats along the same split tree, so both give identical results.
+        StrategyStats runAll(String strategy) { return runRuns(strategy, 1, runs); }
+
+        // Runs first .. first+count-1; chunks are cut from `first`, so callers
+        // extending a sequence in CHUNK multiples see the same chunks as runAll.
+        StrategyStats runRuns(String strategy, int first, int count) {
+            VaccinationStrategy.Selector sel = topo.selector(strategy);   // before forking
+            RunLog        log    = new RunLog(first, count, keepRuns, commonRandomNumbers, topo.n);
+            int           chunks = (count + CHUNK - 1) / CHUNK;
+            StrategyStats st;
+            if (chunks == 0) {
+                st = new StrategyStats(strategy, topo.n);
+            } else if (parallelism <= 1 || chunks == 1) {
+                st = runRange(strategy, sel, 0, chunks, log, worker);
+            } else {
+                if (workers == null) {
+                    SpreadEngine proto = worker.engine;
+                    workers = ThreadLocal.withInitial(() -> new Worker(proto.fresh()));
+                }
+                st = (pool != null ? pool : ownPool()).invoke(new RunTask(strategy, sel, 0, chunks, log));
+            }
+            if (log.records != null) Collections.addAll(allResults, log.records);
+            if (log.finals  != null) {
+                int[] f = pairedFinals.getOrDefault(strategy, new int[0]);
+                if (f.length < first - 1 + count) f = Arrays.copyOf(f, first - 1 + count);
+                System.arraycopy(log.finals, 0, f, first - 1, count);
+                pairedFinals.put(strategy, f);
+            }
+            stats.merge(strategy, st, (a, b) -> new StrategyStats(strategy, topo.n).merge(a).merge(b));
+            return st;
+        }
+
+        // Pool owned by this experiment, replaced when parallelism changes.
+        private ForkJoinPool ownPool() {
+            if (ownPool != null && ownPool.getParallelism() == parallelism) return ownPool;
+            if (ownPool != null) ownPool.shutdown();
+            return ownPool = new ForkJoinPool(parallelism);
+        }
+
+        @Override
+        public void close() {
+            if (ownPool != null) ownPool.shutdown();
+            ownPool = null;
+        }
+
+        StrategyStats runRange(String strategy, VaccinationStrategy.Selector sel, int lo, int hi,
+                               RunLog log, Worker w) {
+            if (hi - lo == 1) return runChunk(strategy, sel, lo, log, w);
+            int mid = (lo + hi) >>> 1;
+            return runRange(strategy, sel, lo, mid, log, w).merge(runRange(strategy, sel, mid, hi, log, w));
+        }
+
+        // Batches cannot share per-edge coins across lanes, so CRN runs unbatched.
+        StrategyStats runChunk(String strategy, VaccinationStrategy.Selector sel, int chunk,
+                               RunLog log, Worker w) {
+            int first = log.first + chunk * CHUNK, count = Math.min(CHUNK, log.end - first);
+            StrategyStats st = new StrategyStats(strategy, topo.n);
+            if (batched && !commonRandomNumbers) {
+                simulateBatch(strategy, sel, first, count, w);
+                BatchedSpreadKernel b = w.batch;
+                for (int lane = 0; lane < count; lane++)
+                    log.record(st, strategy, first + lane,
+                            b.everInfected[lane], b.finalInfected[lane], b.vaccinatedCount[lane]);
+            } else {
+                for (int r = first; r < first + count; r++) {
+                    simulate(strategy, sel, r, w);
+                    log.record(st, strategy, r, w.engine.everInfected, w.engine.finalInfected, w.engine.vaccinated);
+                }
+            }
+            return st;
+        }
+
+        // Mean / CI of finalInfected(a) - finalInfected(b), paired by run over
+        // the runs both strategies have; needs both run in CRN mode.
+        RunningStats pairedDifference(String a, String b) {
+            int[] fa = pairedFinals.get(a), fb = pairedFinals.get(b);
+            if (fa == null || fb == null)
+                throw new IllegalStateException("Run " + a + " and " + b + " with commonRandomNumbers first");
+            RunningStats d = new RunningStats();
+            for (int r = 0, n = Math.min(fa.length, fb.length); r < n; r++) d.add(fa[r] - fb[r]);
+            return d;
+        }
+
+        // Sequential stopping: every strategy starts with one CHUNK of runs and
+        // gets another CHUNK while its ±95% CI exceeds targetCi and its rank is
+        // still open (its CI overlaps another strategy's; under CRN the paired
+        // difference CI is used instead), up to maxRuns. Runs are numbered
+        // consecutively per strategy, so a strategy stopped at n runs has
+        // exactly the stats runAll would give with runs = n.
+        StrategyStats[] runAdaptive(String[] strats) {
+            StrategyStats[] st   = new StrategyStats[strats.length];
+            boolean[]       open = new boolean[strats.length];
+            for (int s = 0; s < strats.length; s++) {
+                st[s] = runRuns(strats[s], 1, Math.min(CHUNK, maxRuns));
+                open[s] = true;
+            }
+            for (boolean any = true; any; ) {
+                any = false;
+                for (int s = 0; s < strats.length; s++)
+                    open[s] = open[s] && st[s].fin.count < maxRuns && st[s].fin.ci95() > targetCi
+                            && !rankSettled(strats, st, s);
+                for (int s = 0; s < strats.length; s++) {
+                    if (!open[s]) continue;
+                    int done = (int) st[s].fin.count;
+                    st[s].merge(runRuns(strats[s], done + 1, Math.min(CHUNK, maxRuns - done)));
+                    any = true;
+                }
+            }
+            return st;
+        }
+
+        boolean rankSettled(String[] strats, StrategyStats[] st, int s) {
+            for (int o = 0; o < strats.length; o++) {
+                if (o == s) continue;
+                boolean apart;
+                if (commonRandomNumbers) {
+                    RunningStats d = pairedDifference(strats[s], strats[o]);
+                    apart = d.count > 1 && Math.abs(d.mean) > d.ci95();
+                } else {
+                    apart = Math.abs(st[s].fin.mean - st[o].fin.mean) > st[s].fin.ci95() + st[o].fin.ci95();
+                }
+                if (!apart) return false;
+            }
+            return true;
+        }
+
+        // Per-run outputs of one runAll; each run writes only its own slot.
+        static final class RunLog {
+            final SimulationResult[] records;        // keepRuns
+            final int[]              finals;         // CRN pairing
+
+            final int                first, end;     // runs [first, end)
+            final int                population;
+
+            RunLog(int first, int count, boolean keep, boolean paired, int population) {
+                this.first = first; end = first + count; this.population = population;
+                records = keep   ? new SimulationResult[count] : null;
+                finals  = paired ? new int[count]              : null;
+            }
+
+            // Counts go straight into the stats; a SimulationResult is only
+            // built when per-run records are kept.
+            void record(StrategyStats st, String strategy, int run, int ever, int fin, int vacc) {
+                st.add(ever, fin, vacc);
+                if (records != null) records[run - first] = new SimulationResult(strategy, run, ever, fin, vacc, population);
+                if (finals  != null) finals[run - first]  = fin;
+            }
+        }
+
+        final class RunTask extends RecursiveTask<StrategyStats> {
+            private static final long serialVersionUID = 1L;
+
+            final String strategy; final VaccinationStrategy.Selector sel; final int lo, hi; final RunLog log;
+
+            RunTask(String strategy, VaccinationStrategy.Selector sel, int lo, int hi, RunLog log) {
+                this.strategy = strategy; this.sel = sel; this.lo = lo; this.hi = hi; this.log = log;
+            }
+
+            @Override
+            protected StrategyStats compute() {
+                if (hi - lo == 1) return runChunk(strategy, sel, lo, log, workers.get());
+                int mid = (lo + hi) >>> 1;
+                RunTask left = new RunTask(strategy, sel, lo, mid, log);
+                left.fork();
+                StrategyStats right = new RunTask(strategy, sel, mid, hi, log).compute();
+                return left.join().merge(right);
+            }
+        }
+
         double[][] compareStrategies() {
-            String[]   strats = {"Random","HighDegree","HighRiskArea"};
-            double[][] avg    = new double[3][3];
+            String[]   strats = strategies;
+            double[][] avg    = new double[strats.length][3];
 
             System.out.println("\n" + "=".repeat(65));
             System.out.println("   CANINE VACCINE STRATEGY SIMULATOR v3.0");
             System.out.println("=".repeat(65));
-            System.out.printf("  Dogs: %d | Infected: %d | Vaccines: %d | Runs: %d%n",
-                    graph.dogs.size(), initInfected, vaccines, runs);
-            System.out.printf("  Inf Prob: %.0f%% | Avg Degree: %.2f | Max Degree: %d%n",
-                    INFECTION_PROB*100, graph.averageDegree(), graph.maxDegree());
+            System.out.printf("  Dogs: %d | Infected: %d | Vaccines: %d | Runs: %s%n",
+                    topo.n, initInfected, vaccines,
+                    targetCi > 0 ? String.format("adaptive (±%.2f, cap %d)", targetCi, maxRuns) : runs);
+            System.out.printf("  Inf Prob: %.0f%% | Avg Degree: %.2f | Max Degree: %d | Max Core: %d%n",
+                    infectionProb*100, topo.averageDegree(), topo.maxDegree(), topo.maxCore());
+            System.out.printf("  Seed: %d%n", seed);
             System.out.println("=".repeat(65));
 
-            for (int s = 0; s < 3; s++) {
-                double sumE=0, sumF=0, sumV=0;
+            int             from = allResults.size();
+            StrategyStats[] st   = new StrategyStats[strats.length];
+            if (targetCi > 0) st = runAdaptive(strats);
+            else for (int s = 0; s < strats.length; s++) st[s] = runAll(strats[s]);
+            for (int s = 0; s < strats.length; s++) {
                 System.out.printf("%n>>> Strategy: %-12s <<<%n", strats[s]);
                 System.out.printf("%-6s %-14s %-16s %-12s %-10s%n",
                         "Run","EverInfected","FinalInfected","Vaccinated","InfRate%");
                 System.out.println("-".repeat(60));
-                for (int r = 1; r <= runs; r++) {
-                    SimulationResult res = runOnce(strats[s], r);
-                    System.out.printf("%-6d %-14d %-16d %-12d %.2f%%%n",
-                            r, res.everInfected, res.finalInfected,
-                            res.vaccinated, res.infectionRate());
-                    sumE+=res.everInfected; sumF+=res.finalInfected; sumV+=res.vaccinated;
-                }
-                avg[s][0]=sumE/runs; avg[s][1]=sumF/runs; avg[s][2]=sumV/runs;
+                for (SimulationResult res : allResults.subList(from, allResults.size()))
+                    if (res.strategy.equals(strats[s]))
+                        System.out.printf("%-6d %-14d %-16d %-12d %.2f%%%n",
+                                res.run, res.everInfected, res.finalInfected,
+                                res.vaccinated, res.infectionRate());
+                if (!keepRuns) System.out.println("(per-run records not kept)");
+                avg[s][0]=st[s].ever.mean; avg[s][1]=st[s].fin.mean; avg[s][2]=st[s].vacc.mean;
             }
 
-            System.out.println("\n" + "=".repeat(65));
+            System.out.println("\n" + "=".repeat(88));
             System.out.println("   SUMMARY");
-            System.out.printf("%-14s %-18s %-18s %-12s%n",
-                    "Strategy","AvgEverInfected","AvgFinalInfected","AvgVaccinated");
-            System.out.println("-".repeat(65));
+            System.out.printf("%-20s %-18s %-18s %-12s %-10s %-6s%n",
+                    "Strategy","AvgEverInfected","AvgFinalInfected","AvgVaccinated","±95%CI","Runs");
+            System.out.println("-".repeat(88));
             int best = 0;
-            for (int s = 0; s < 3; s++) {
-                System.out.printf("%-14s %-18.2f %-18.2f %-12.2f%n",
-                        strats[s], avg[s][0], avg[s][1], avg[s][2]);
+            for (int s = 0; s < strats.length; s++) {
+                System.out.printf("%-20s %-18.2f %-18.2f %-12.2f %-10.2f %-6d%n",
+                        strats[s], avg[s][0], avg[s][1], avg[s][2], st[s].fin.ci95(), st[s].fin.count);
                 if (avg[s][1] < avg[best][1]) best = s;
             }
-            System.out.printf("%n  Best: %s | Improvement: %.1f%% over Random%n",
-                    strats[best], (avg[0][1]-avg[best][1])/avg[0][1]*100);
-            System.out.println("=".repeat(65));
-
-            try { exportCSV("simulation_results.csv", strats, avg); }
+            for (int s = 0; s < strats.length; s++)
+                if (avg[s][2] < Math.min(vaccines, topo.n))
+                    System.out.printf("  Warning: %s placed %.2f of %d doses per run on average%n",
+                            strats[s], avg[s][2], Math.min(vaccines, topo.n));
+            System.out.printf("%n  Best: %s | Improvement: %.1f%% over %s%n",
+                    strats[best], (avg[0][1]-avg[best][1])/avg[0][1]*100, strats[0]);
+            if (commonRandomNumbers) {
+                System.out.println("  Paired vs " + strats[0] + " (common random numbers):");
+                for (int s = 1; s < strats.length; s++) {
+                    RunningStats d = pairedDifference(strats[s], strats[0]);
+                    System.out.printf("    %-20s %+.2f ± %.2f dogs%n", strats[s], d.mean, d.ci95());
+                }
+            }
+            System.out.println("-".repeat(88));
+            System.out.printf("%-20s %-10s %-10s %-10s P(outbreak >= %.0f%%)%n",
+                    "Strategy","P50","P90","P99", LARGE_OUTBREAK*100);
+            for (StrategyStats x : st)
+                System.out.printf("%-20s %-10d %-10d %-10d %.3f%n", x.strategy,
+                        x.sizes.quantile(0.50), x.sizes.quantile(0.90), x.sizes.quantile(0.99),
+                        x.sizes.largeOutbreakProbability(LARGE_OUTBREAK));
+            System.out.println("=".repeat(88));
+
+            try {
+                exportCSV("simulation_results.csv", st);
+                exportDistributionCSV("simulation_results_distribution.csv", st);
+            }
             catch (IOException e) { System.out.println("CSV export failed: "+e.getMessage()); }
             return avg;
         }
 
-        void exportCSV(String file, String[] strats, double[][] avg) throws IOException {
+        // Expected final outbreak for each strategy at every probability in
+        // `probs`, from `samples` Newman-Ziff passes per strategy instead of
+        // a separate experiment per INFECTION_PROB value. Pass sample r
+        // prepares the same seeds and vaccinations as run r of runAll.
+        // `file` == null skips the CSV export.
+        double[][] sweepInfectionProb(int samples, double[] probs, String file) {
+            String[]   strats = strategies;
+            double[][] curve  = new double[strats.length][probs.length];
+            for (int s = 0; s < strats.length; s++) {
+                NewmanZiffSweep sweep = new NewmanZiffSweep(topo);
+                VaccinationStrategy.Selector sel = topo.selector(strats[s]);
+                for (int r = 1; r <= samples; r++) {
+                    RandomGenerator rng = runRng(strats[s], r, worker);
+                    prepareRun(sel, r, rng, worker);
+                    sweep.run(worker.state, rng);
+                }
+                for (int i = 0; i < probs.length; i++) curve[s][i] = sweep.expected(probs[i]);
+            }
+
+            System.out.printf("%n%-10s", "InfProb");
+            for (String st : strats) System.out.printf(" %-14s", st);
+            System.out.println();
+            for (int i = 0; i < probs.length; i++) {
+                System.out.printf("%-10.3f", probs[i]);
+                for (int s = 0; s < strats.length; s++) System.out.printf(" %-14.2f", curve[s][i]);
+                System.out.println();
+            }
+            try {
+                if (file != null) exportSweepCSV(file, probs, curve);
+            }
+            catch (IOException e) { System.out.println("CSV export failed: "+e.getMessage()); }
+            return curve;
+        }
+
+        void exportSweepCSV(String file, double[] probs, double[][] curve) throws IOException {
+            try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+                pw.println("InfProb," + String.join(",", strategies));
+                for (int i = 0; i < probs.length; i++) {
+                    pw.printf("%.4f", probs[i]);
+                    for (double[] c : curve) pw.printf(",%.2f", c[i]);
+                    pw.println();
+                }
+            }
+            System.out.println("  Exported → " + file);
+        }
+
+        void exportDistributionCSV(String file, StrategyStats[] st) throws IOException {
             try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
-                pw.println("Strategy,AvgEverInfected,AvgFinalInfected,AvgVaccinated,InfRate%");
-                for (int s = 0; s < 3; s++)
-                    pw.printf("%s,%.2f,%.2f,%.2f,%.2f%n", strats[s],
-                            avg[s][0], avg[s][1], avg[s][2],
-                            avg[s][1]/graph.dogs.size()*100);
+                pw.println("Strategy,Runs,P50,P90,P99,PLargeOutbreak");
+                for (StrategyStats s : st)
+                    pw.printf("%s,%d,%d,%d,%d,%.4f%n", s.strategy, s.sizes.total,
+                            s.sizes.quantile(0.50), s.sizes.quantile(0.90), s.sizes.quantile(0.99),
+                            s.sizes.largeOutbreakProbability(LARGE_OUTBREAK));
+                pw.println("\nStrategy,SizeFrom,SizeTo,Runs");
+                for (StrategyStats s : st)
+                    for (int b = 0; b < s.sizes.counts.length; b++)
+                        if (s.sizes.counts[b] > 0)
+                            pw.printf("%s,%d,%d,%d%n", s.strategy,
+                                    s.sizes.bucketLow(b), s.sizes.bucketHigh(b), s.sizes.counts[b]);
+            }
+            System.out.println("  Exported → " + file);
+        }
+
+        void exportCSV(String file, StrategyStats[] st) throws IOException {
+            try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+                pw.println("Strategy,AvgEverInfected,AvgFinalInfected,AvgVaccinated,InfRate%,"
+                        + "Runs,StdFinal,CI95Final,MinFinal,MaxFinal");
+                for (StrategyStats s : st)
+                    pw.printf("%s,%.2f,%.2f,%.2f,%.2f,%d,%.2f,%.2f,%.0f,%.0f%n", s.strategy,
+                            s.ever.mean, s.fin.mean, s.vacc.mean, s.fin.mean/topo.n*100,
+                            s.fin.count, s.fin.stdDev(), s.fin.ci95(), s.fin.min, s.fin.max);
+                if (!keepRuns) return;
                 pw.println("\nStrategy,Run,EverInfected,FinalInfected,Vaccinated,InfRate%");
                 for (SimulationResult r : allResults)
                     pw.printf("%s,%d,%d,%d,%d,%.2f%n", r.strategy, r.run,
@@ -317,6 +2044,109 @@ public class DogVaccinationApp extends Application {
         }
     }
 
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — Scenario / ScenarioResult
+    // ══════════════════════════════════════════════════════
+    static final class Scenario {
+        final String strategy; final int vaccines, initInfected, runs; final double infectionProb;
+
+        Scenario(String strategy, int vaccines, int initInfected, double infectionProb, int runs) {
+            this.strategy=strategy; this.vaccines=vaccines; this.initInfected=initInfected;
+            this.infectionProb=infectionProb; this.runs=runs;
+        }
+
+        // Full cross product, strategy varying slowest.
+        static List<Scenario> grid(String[] strategies, int[] vaccines, int[] initInfected,
+                                   double[] probs, int runs) {
+            List<Scenario> out = new ArrayList<>();
+            for (String s : strategies) for (int v : vaccines) for (int i : initInfected) for (double p : probs)
+                out.add(new Scenario(s, v, i, p, runs));
+            return out;
+        }
+    }
+
+    static final class ScenarioResult {
+        final Scenario scenario; final StrategyStats stats; final double avgEver, avgFinal, avgVacc;
+
+        ScenarioResult(Scenario sc, StrategyStats st) {
+            scenario = sc; stats = st;
+            avgEver  = st.ever.mean; avgFinal = st.fin.mean; avgVacc = st.vacc.mean;
+        }
+
+        String csvLine() {
+            return String.format("%s,%d,%d,%.4f,%d,%.2f,%.2f,%.2f,%.2f", scenario.strategy, scenario.vaccines,
+                    scenario.initInfected, scenario.infectionProb, scenario.runs, avgEver, avgFinal, avgVacc,
+                    stats.fin.ci95());
+        }
+    }
+
+    // ══════════════════════════════════════════════════════
+    //  INNER CLASS — ScenarioSweep (many scenarios, one JVM)
+    // ══════════════════════════════════════════════════════
+    // Runs a list of scenarios concurrently against one shared graph: the
+    // simulation itself on a bounded pool of platform threads (one per core
+    // by default), the result sink on virtual threads where the JDK has them,
+    // so slow exporters never hold a CPU thread. Each result reaches the sink
+    // as soon as its scenario finishes.
+    static final class ScenarioSweep {
+        final Topology topo;
+        int            threads = Runtime.getRuntime().availableProcessors();
+        long           seed    = new SplittableRandom().nextLong();
+
+        ScenarioSweep(Topology t) { topo = t; }
+        ScenarioSweep(DogGraph g) { this(g.topology()); }
+
+        List<ScenarioResult> run(List<Scenario> scenarios, Consumer<ScenarioResult> sink) {
+            ExecutorService cpu = Executors.newFixedThreadPool(threads);
+            ExecutorService io  = ioExecutor();
+            try {
+                List<CompletableFuture<ScenarioResult>> results = new ArrayList<>();
+                List<CompletableFuture<Void>>           exports = new ArrayList<>();
+                for (Scenario sc : scenarios) {
+                    CompletableFuture<ScenarioResult> f = CompletableFuture.supplyAsync(() -> simulate(sc), cpu);
+                    results.add(f);
+                    exports.add(f.thenAcceptAsync(sink, io));
+                }
+                CompletableFuture.allOf(exports.toArray(new CompletableFuture<?>[0])).join();
+                List<ScenarioResult> out = new ArrayList<>();
+                for (CompletableFuture<ScenarioResult> f : results) out.add(f.join());
+                return out;
+            } finally {
+                cpu.shutdown();
+                io.shutdown();
+            }
+        }
+
+        // Streams one CSV line per finished scenario (completion order).
+        List<ScenarioResult> runToCsv(List<Scenario> scenarios, String file) throws IOException {
+            try (PrintWriter pw = new PrintWriter(new FileWriter(file))) {
+                pw.println("Strategy,Vaccines,InitInfected,InfProb,Runs,AvgEverInfected,AvgFinalInfected,AvgVaccinated,CI95Final");
+                List<ScenarioResult> out = run(scenarios, r -> {
+                    synchronized (pw) { pw.println(r.csvLine()); pw.flush(); }
+                });
+                System.out.println("  Exported → " + file);
+                return out;
+            }
+        }
+
+        ScenarioResult simulate(Scenario sc) {
+            Experiment exp = new Experiment(topo, sc.runs, sc.initInfected, sc.vaccines);
+            exp.seed          = seed;
+            exp.infectionProb = sc.infectionProb;
+            exp.keepRuns      = false;
+            return new ScenarioResult(sc, exp.runAll(sc.strategy));
+        }
+
+        // Virtual threads on JDK 21+, otherwise a cached platform pool.
+        static ExecutorService ioExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return Executors.newCachedThreadPool();
+            }
+        }
+    }
+
     // ══════════════════════════════════════════════════════
     //  JAVAFX STATE
     // ══════════════════════════════════════════════════════
@@ -369,7 +2199,7 @@ public class DogVaccinationApp extends Application {
             "Dogs: "+N_DOGS+" | Infected: "+INIT_INFECTED+" | Vaccines: "+VACCINES+
             " | Runs: "+RUNS+" | Inf Prob: "+(int)(INFECTION_PROB*100)+"%"+
             " | Avg Degree: "+String.format("%.2f",graph.averageDegree())+
-            " | Max Degree: "+graph.maxDegree());
+            " | Max Degree: "+graph.maxDegree()+" | Max Core: "+graph.maxCore());
         meta.setFont(Font.font("Courier New", 11));
         meta.setTextFill(MUTED);
 
@@ -557,11 +2387,7 @@ public class DogVaccinationApp extends Application {
         gc.setFill(PANEL); gc.fillRoundRect(0,0,W,H,12,12);
 
         graph.reset(); graph.infectRandom(INIT_INFECTED);
-        switch(strategy) {
-            case "Random":       graph.vaccinateRandom(VACCINES);      break;
-            case "HighDegree":   graph.vaccinateHighDegree(VACCINES);  break;
-            case "HighRiskArea": graph.vaccinateHighRiskArea(VACCINES); break;
-        }
+        graph.vaccinate(strategy, VACCINES);
         graph.simulateSpread();
 
         // Edges
@@ -698,20 +2524,12 @@ public class DogVaccinationApp extends Application {
         List<Integer> initInf = new ArrayList<>();
         graph.dogs.values().stream().filter(d->d.infected).forEach(d->initInf.add(d.id));
 
-        switch(curStrat) {
-            case "Random":       graph.vaccinateRandom(VACCINES);      break;
-            case "HighDegree":   graph.vaccinateHighDegree(VACCINES);  break;
-            case "HighRiskArea": graph.vaccinateHighRiskArea(VACCINES); break;
-        }
+        graph.vaccinate(curStrat, VACCINES);
         List<List<Integer>> waves = graph.getWaves();
 
         graph.dogs.values().forEach(d->d.infected=false);
         initInf.forEach(id->graph.dogs.get(id).infected=true);
-        switch(curStrat) {
-            case "Random":       graph.vaccinateRandom(VACCINES);      break;
-            case "HighDegree":   graph.vaccinateHighDegree(VACCINES);  break;
-            case "HighRiskArea": graph.vaccinateHighRiskArea(VACCINES); break;
-        }
+        graph.vaccinate(curStrat, VACCINES);
         redrawNodes();
 
         Timeline tl=new Timeline();
@@ -759,9 +2577,26 @@ public class DogVaccinationApp extends Application {
     public static void main(String[] args) {
         // Step 1: Run console simulation
         System.out.println("Building Scale-Free Graph (Barabasi-Albert)...");
-        DogGraph   g   = DogGraph.buildScaleFreeGraph(N_DOGS, EDGES_PER_NODE);
-        Experiment exp = new Experiment(g, RUNS, INIT_INFECTED, VACCINES);
-        exp.compareStrategies();
+        Topology t = Topology.scaleFree(N_DOGS, EDGES_PER_NODE, new SplittableRandom());
+        try (Experiment exp = new Experiment(t, RUNS, INIT_INFECTED, VACCINES)) {
+            if (Arrays.asList(args).contains("--all-strategies")) exp.strategies = StrategyRegistry.names();
+            exp.compareStrategies();
+            for (String a : args)
+                if (a.equals("--sweep") || a.startsWith("--sweep=")) {
+                    double[] probs = new double[21];
+                    for (int i = 0; i < probs.length; i++) probs[i] = i * 0.05;
+                    exp.sweepInfectionProb(SWEEP_SAMPLES, probs,
+                            a.startsWith("--sweep=") ? a.substring(8) : "infection_sweep.csv");
+                } else if (a.equals("--grid") || a.startsWith("--grid=")) {
+                    List<Scenario> grid = Scenario.grid(exp.strategies,
+                            new int[]{VACCINES / 3, 2 * VACCINES / 3, VACCINES}, new int[]{INIT_INFECTED},
+                            new double[]{0.2, 0.3, INFECTION_PROB, 0.5}, RUNS);
+                    try {
+                        new ScenarioSweep(t).runToCsv(grid, a.startsWith("--grid=") ? a.substring(7) : "scenario_sweep.csv");
+                    }
+                    catch (IOException e) { System.out.println("CSV export failed: "+e.getMessage()); }
+                }
+        }
 
         // Step 2: Launch JavaFX visual dashboard
         System.out.println("\nLaunching JavaFX Visual Dashboard...");